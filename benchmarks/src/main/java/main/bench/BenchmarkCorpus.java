@@ -0,0 +1,56 @@
+package main.bench;
+
+import main.*;
+import main.pieces.Queen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Фиксированный набор позиций для бенчмарков: партии из начальной позиции,
+// сыгранные случайными легальными ходами с постоянным зерном. Одинаковое зерно -
+// одинаковые позиции при каждом запуске
+public final class BenchmarkCorpus {
+    public static final int POSITIONS = 16;
+    private static final long SEED = 20240601L;
+
+    private BenchmarkCorpus() {
+    }
+
+    public static List<Game> create(GameType gameType) {
+        Random random = new Random(SEED);
+        List<Game> games = new ArrayList<>(POSITIONS);
+        MoveList moves = new MoveList();
+        while (games.size() < POSITIONS) {
+            Game game = new Game(gameType);
+            Board board = game.getBoard();
+            int plies = 10 + random.nextInt(50);
+            boolean finished = false;
+            for (int ply = 0; ply < plies; ply++) {
+                moves.clear();
+                board.generateLegalMoves(game.getCurrentPlayer(), moves);
+                if (moves.isEmpty()) {
+                    finished = true;
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                Position from = board.getMailbox().toPosition(Move.from(move));
+                Position to = board.getMailbox().toPosition(Move.to(move));
+                game.makeMove(from, to);
+                if (Move.isPromotion(move)) {
+                    game.promotePawn(to, Queen.class);
+                }
+            }
+            // Мат и пат в корпус не берём - у них нечего генерировать
+            if (!finished) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    // Сообщения ядра правил в бенчмарках только мешают
+    public static void muteLogging() {
+        Log.setLevel(Log.Level.WARN);
+    }
+}
@@ -0,0 +1,155 @@
+package main.bench;
+
+import main.*;
+import main.pieces.Piece;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Горячие пути ядра правил на корпусе CLASSIC и OMEGA (BenchmarkCorpus).
+// Одна операция - проход по всем позициям корпуса.
+// Частота выделений памяти: java -jar benchmarks/target/benchmarks.jar -prof gc
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RulesCoreBenchmark {
+    @Param({"CLASSIC", "OMEGA"})
+    public GameType gameType;
+
+    private Board[] boards;
+    private Color[] sides;
+    private List<List<Piece>> sidePieces;   // фигуры стороны, которая ходит
+    private MoveList[] pseudoMoves;         // псевдолегальные ходы позиции
+    private List<List<Position[]>> pseudoPairs; // они же как пары клеток для isMoveLegal(from, to, color)
+    private List<List<Position[]>> legalMoves; // легальные ходы как пары клеток для movePiece
+    private final MoveList buffer = new MoveList();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkCorpus.muteLogging();
+        List<Game> games = BenchmarkCorpus.create(gameType);
+        int count = games.size();
+        boards = new Board[count];
+        sides = new Color[count];
+        sidePieces = new ArrayList<>(count);
+        pseudoMoves = new MoveList[count];
+        pseudoPairs = new ArrayList<>(count);
+        legalMoves = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            Board board = games.get(i).getBoard();
+            Color side = games.get(i).getCurrentPlayer();
+            boards[i] = board;
+            sides[i] = side;
+
+            List<Piece> pieces = new ArrayList<>();
+            PieceLists pieceLists = board.getPieceLists();
+            for (PieceType type : PieceType.values()) {
+                for (int n = 0; n < pieceLists.count(side, type); n++) {
+                    pieces.add(board.getPieceAt(pieceLists.square(side, type, n)));
+                }
+            }
+            sidePieces.add(pieces);
+
+            pseudoMoves[i] = new MoveList();
+            MoveCalculator.generateMoves(board, side, pseudoMoves[i]);
+            pseudoPairs.add(toPairs(pseudoMoves[i], board.getMailbox()));
+
+            MoveList legal = new MoveList();
+            board.generateLegalMoves(side, legal);
+            List<Position[]> pairs = new ArrayList<>(legal.size());
+            for (int m = 0; m < legal.size(); m++) {
+                int move = legal.get(m);
+                // Превращения отличаются только фигурой - для movePiece хватит одного варианта
+                if (Move.promotion(move) != null && Move.promotion(move) != PieceType.QUEEN) {
+                    continue;
+                }
+                Mailbox mailbox = board.getMailbox();
+                pairs.add(new Position[]{mailbox.toPosition(Move.from(move)), mailbox.toPosition(Move.to(move))});
+            }
+            legalMoves.add(pairs);
+        }
+    }
+
+    private static List<Position[]> toPairs(MoveList moves, Mailbox mailbox) {
+        List<Position[]> pairs = new ArrayList<>(moves.size());
+        for (int m = 0; m < moves.size(); m++) {
+            int move = moves.get(m);
+            pairs.add(new Position[]{mailbox.toPosition(Move.from(move)), mailbox.toPosition(Move.to(move))});
+        }
+        return pairs;
+    }
+
+    // MoveCalculator.get*Moves через Piece.getPossibleMoves (списки Position)
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            for (Piece piece : sidePieces.get(i)) {
+                blackhole.consume(piece.getPossibleMoves(boards[i]));
+            }
+        }
+    }
+
+    // Упакованная генерация псевдолегальных ходов в переиспользуемый буфер
+    @Benchmark
+    public void generateMoves(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            buffer.clear();
+            MoveCalculator.generateMoves(boards[i], sides[i], buffer);
+            blackhole.consume(buffer.size());
+        }
+    }
+
+    @Benchmark
+    public void calculateAttackMaps() {
+        for (Board board : boards) {
+            board.calculateAttackMaps();
+        }
+    }
+
+    // Board.isMoveLegal(int) для упакованных ходов (генератор и поиск)
+    @Benchmark
+    public void isMoveLegal(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            MoveList moves = pseudoMoves[i];
+            for (int m = 0; m < moves.size(); m++) {
+                blackhole.consume(boards[i].isMoveLegal(moves.get(m)));
+            }
+        }
+    }
+
+    // Board.isMoveLegal(from, to, color) - проверка хода, сделанного в GUI
+    @Benchmark
+    public void isMoveLegalPosition(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            for (Position[] move : pseudoPairs.get(i)) {
+                blackhole.consume(boards[i].isMoveLegal(move[0], move[1], sides[i]));
+            }
+        }
+    }
+
+    @Benchmark
+    public void hasLegalMoves(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            blackhole.consume(boards[i].hasLegalMoves(sides[i]));
+        }
+    }
+
+    // movePiece + undoLastMove для каждого легального хода каждой позиции
+    @Benchmark
+    public void moveAndUndo(Blackhole blackhole) {
+        for (int i = 0; i < boards.length; i++) {
+            Board board = boards[i];
+            for (Position[] move : legalMoves.get(i)) {
+                blackhole.consume(board.movePiece(move[0], move[1]));
+                board.undoLastMove();
+            }
+        }
+    }
+}
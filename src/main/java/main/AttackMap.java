@@ -4,31 +4,107 @@ import main.pieces.Piece;
 
 import java.util.*;
 
+// Карта атак одной стороны на массивах, индексированных номером клетки битборда
+// (та же нумерация, что в Bitboard/WideBitboard и Mailbox.toSquare). Для каждой клетки хранятся
+// число атакующих фигур, число атакующих пешек и набор клеток, с которых идут атаки
+// (128 бит - хватает и для 104 клеток Omega). Очистка - Arrays.fill, без перехеширования
 public class AttackMap {
-    // Map<Position, List<Piece>> - какие фигуры атакуют данную позицию
-    private Map<Position, List<Piece>> attackMap;
+    private final Board board;
+    private final Mailbox mailbox;
+    private final int[] attackerCounts;
+    private final int[] pawnCounts;
+    private final long[] attackersLo; // клетки атакующих 0..63
+    private final long[] attackersHi; // клетки атакующих 64..127
 
-    public AttackMap() {
-        attackMap = new HashMap<>();
+    public AttackMap(Board board) {
+        this.board = board;
+        this.mailbox = board.getMailbox();
+        int squareCount = mailbox.squareCount();
+        this.attackerCounts = new int[squareCount];
+        this.pawnCounts = new int[squareCount];
+        this.attackersLo = new long[squareCount];
+        this.attackersHi = new long[squareCount];
     }
 
-    // Добавить атакующую фигуру на позицию
-    public void addAttack(Position position, Piece attacker) {
-        attackMap.computeIfAbsent(position, k -> new ArrayList<>()).add(attacker);
+    // Фигура с клетки attacker атакует клетку target
+    public void addAttack(int target, int attacker, boolean isPawn) {
+        attackerCounts[target]++;
+        if (isPawn) {
+            pawnCounts[target]++;
+        }
+        if (attacker < 64) {
+            attackersLo[target] |= 1L << attacker;
+        } else {
+            attackersHi[target] |= 1L << (attacker - 64);
+        }
+    }
+
+    // Убрать атаку фигуры с клетки attacker на клетку target
+    public void removeAttack(int target, int attacker, boolean isPawn) {
+        attackerCounts[target]--;
+        if (isPawn) {
+            pawnCounts[target]--;
+        }
+        if (attacker < 64) {
+            attackersLo[target] &= ~(1L << attacker);
+        } else {
+            attackersHi[target] &= ~(1L << (attacker - 64));
+        }
+    }
+
+    public boolean isAttacked(int target) {
+        return attackerCounts[target] != 0;
+    }
+
+    public boolean isAttackedByPawn(int target) {
+        return pawnCounts[target] != 0;
+    }
+
+    public int getAttackerCount(int target) {
+        return attackerCounts[target];
+    }
+
+    // Клетка следующего атакующего, начиная с from, или -1
+    public int nextAttacker(int target, int from) {
+        if (from < 64) {
+            long word = attackersLo[target] & (-1L << from);
+            if (word != 0) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            from = 64;
+        }
+        long word = attackersHi[target] & (-1L << (from - 64));
+        return (word != 0) ? 64 + Long.numberOfTrailingZeros(word) : -1;
     }
 
     // Получить список фигур, атакующих позицию
     public List<Piece> getAttackers(Position position) {
-        return attackMap.getOrDefault(position, Collections.emptyList());
+        int index = mailbox.index(position);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        int target = mailbox.toSquare(index);
+        if (attackerCounts[target] == 0) {
+            return Collections.emptyList();
+        }
+        List<Piece> attackers = new ArrayList<>(attackerCounts[target]);
+        for (int attacker = nextAttacker(target, 0); attacker >= 0; attacker = nextAttacker(target, attacker + 1)) {
+            attackers.add(board.getPieceAt(mailbox.fromSquare(attacker)));
+        }
+        return attackers;
     }
 
     // Проверить, атакована ли позиция
     public boolean isAttacked(Position position) {
-        return attackMap.containsKey(position) && !attackMap.get(position).isEmpty();
+        int index = mailbox.index(position);
+        return index >= 0 && attackerCounts[mailbox.toSquare(index)] != 0;
     }
 
     // Очистить карту (перед пересчётом)
     public void clear() {
-        attackMap.clear();
+        Arrays.fill(attackerCounts, 0);
+        Arrays.fill(pawnCounts, 0);
+        Arrays.fill(attackersLo, 0L);
+        Arrays.fill(attackersHi, 0L);
     }
 }
@@ -0,0 +1,132 @@
+package main;
+
+// Утилиты для 64-битных битбордов классической доски 8×8.
+// Номер клетки: square = row * 8 + col (a1 = 0, h1 = 7, a8 = 56, h8 = 63)
+public final class Bitboard {
+    public static final int SIZE = 8;
+    public static final int SQUARES = 64;
+
+    // Направления лучей: смещения по строке и столбцу
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},   // ладейные
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}  // слоновые
+    };
+
+    private static final long[] KNIGHT_ATTACKS = new long[SQUARES];
+    private static final long[] KING_ATTACKS = new long[SQUARES];
+    private static final long[][] PAWN_ATTACKS = new long[2][SQUARES];
+    // RAYS[direction][square] - все клетки луча от square до края доски (без самой square)
+    private static final long[][] RAYS = new long[DIRECTIONS.length][SQUARES];
+
+    static {
+        int[][] knightOffsets = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+        int[][] kingOffsets = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+
+        for (int sq = 0; sq < SQUARES; sq++) {
+            int row = sq / SIZE;
+            int col = sq % SIZE;
+
+            KNIGHT_ATTACKS[sq] = leaperMask(row, col, knightOffsets);
+            KING_ATTACKS[sq] = leaperMask(row, col, kingOffsets);
+            PAWN_ATTACKS[Color.WHITE.ordinal()][sq] = leaperMask(row, col, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[Color.BLACK.ordinal()][sq] = leaperMask(row, col, new int[][]{{-1, -1}, {-1, 1}});
+
+            for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+                long ray = 0L;
+                int r = row + DIRECTIONS[dir][0];
+                int c = col + DIRECTIONS[dir][1];
+                while (isOnBoard(r, c)) {
+                    ray |= bit(square(r, c));
+                    r += DIRECTIONS[dir][0];
+                    c += DIRECTIONS[dir][1];
+                }
+                RAYS[dir][sq] = ray;
+            }
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    private static long leaperMask(int row, int col, int[][] offsets) {
+        long mask = 0L;
+        for (int[] offset : offsets) {
+            int r = row + offset[0];
+            int c = col + offset[1];
+            if (isOnBoard(r, c)) {
+                mask |= bit(square(r, c));
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isOnBoard(int row, int col) {
+        return row >= 0 && row < SIZE && col >= 0 && col < SIZE;
+    }
+
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int col(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static int popCount(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    // Номер младшей установленной клетки (bitboard != 0)
+    public static int lowestSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(Color color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        return rayAttacks(0, square, occupied) | rayAttacks(1, square, occupied)
+                | rayAttacks(2, square, occupied) | rayAttacks(3, square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return rayAttacks(4, square, occupied) | rayAttacks(5, square, occupied)
+                | rayAttacks(6, square, occupied) | rayAttacks(7, square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    // Атаки вдоль одного луча: луч обрезается сразу за первой занятой клеткой
+    private static long rayAttacks(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        // Для направлений "вверх" и "вправо" первый блокер - младший бит, для остальных - старший
+        int step = DIRECTIONS[dir][0] * SIZE + DIRECTIONS[dir][1];
+        int blocker = (step > 0)
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[dir][blocker];
+    }
+}
@@ -0,0 +1,91 @@
+package main;
+
+import java.util.Arrays;
+
+// Битбордовое представление позиции классической доски: по одному long на каждый
+// тип фигуры каждого цвета плюс занятость по цветам. Хранится рядом с сеткой Board
+// и обновляется вместе с ней.
+public class BitboardPosition {
+    private final long[][] pieces = new long[2][PieceType.values().length];
+    private final long[] occupancy = new long[2];
+    private long allPieces;
+
+    public void addPiece(Color color, PieceType type, int square) {
+        long bit = Bitboard.bit(square);
+        pieces[color.ordinal()][type.ordinal()] |= bit;
+        occupancy[color.ordinal()] |= bit;
+        allPieces |= bit;
+    }
+
+    public void removePiece(Color color, PieceType type, int square) {
+        long mask = ~Bitboard.bit(square);
+        pieces[color.ordinal()][type.ordinal()] &= mask;
+        occupancy[color.ordinal()] &= mask;
+        allPieces &= mask;
+    }
+
+    public long getPieces(Color color, PieceType type) {
+        return pieces[color.ordinal()][type.ordinal()];
+    }
+
+    public long getOccupancy(Color color) {
+        return occupancy[color.ordinal()];
+    }
+
+    public long getAllPieces() {
+        return allPieces;
+    }
+
+    // Клетки, которые атакует фигура данного типа с клетки square (включая занятые своими)
+    public long attacksFrom(PieceType type, Color color, int square) {
+        switch (type) {
+            case PAWN: return Bitboard.pawnAttacks(color, square);
+            case KNIGHT: return Bitboard.knightAttacks(square);
+            case BISHOP: return Bitboard.bishopAttacks(square, allPieces);
+            case ROOK: return Bitboard.rookAttacks(square, allPieces);
+            case QUEEN: return Bitboard.queenAttacks(square, allPieces);
+            case KING: return Bitboard.kingAttacks(square);
+            default: return 0L;
+        }
+    }
+
+    // Атакована ли клетка фигурами цвета attackerColor.
+    // Считается "от клетки": пешечные/конные/королевские маски и лучи сравниваются с битбордами атакующего
+    public boolean isSquareAttacked(int square, Color attackerColor) {
+        int c = attackerColor.ordinal();
+        long[] attacker = pieces[c];
+
+        if ((Bitboard.pawnAttacks(attackerColor.opposite(), square) & attacker[PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboard.knightAttacks(square) & attacker[PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboard.kingAttacks(square) & attacker[PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        long queens = attacker[PieceType.QUEEN.ordinal()];
+        long rooksQueens = attacker[PieceType.ROOK.ordinal()] | queens;
+        if (rooksQueens != 0 && (Bitboard.rookAttacks(square, allPieces) & rooksQueens) != 0) {
+            return true;
+        }
+        long bishopsQueens = attacker[PieceType.BISHOP.ordinal()] | queens;
+        return bishopsQueens != 0 && (Bitboard.bishopAttacks(square, allPieces) & bishopsQueens) != 0;
+    }
+
+    // Клетка короля или -1, если короля нет
+    public int getKingSquare(Color color) {
+        long king = pieces[color.ordinal()][PieceType.KING.ordinal()];
+        return (king == 0) ? -1 : Bitboard.lowestSquare(king);
+    }
+
+    public void clear() {
+        for (long[] byType : pieces) {
+            Arrays.fill(byType, 0L);
+        }
+        occupancy[0] = 0L;
+        occupancy[1] = 0L;
+        allPieces = 0L;
+    }
+}
@@ -2,35 +2,84 @@ package main;
 
 import main.pieces.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Stack;
 
 public class Board {
-    private Piece[][] mainGrid;  // Основная доска
-    private Piece[][] cornerGrid; // Угловые клетки (только для OMEGA)
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final Position[] CORNER_POSITIONS = {
+            Position.corner("w1"), Position.corner("w2"), Position.corner("w3"), Position.corner("w4")
+    };
+
+    private final Mailbox mailbox; // Геометрия доски: индексы клеток, рамка-сентинел, угловые клетки
+    private final Piece[] squares;  // Фигуры по индексам мейлбокса (основная доска и угловые клетки)
     private int BOARD_SIZE; // Размер основной доски
     private final Game game;
     private AttackMap whiteAttackMap;
     private AttackMap blackAttackMap;
-    private Stack<MoveSnapshot> moveHistory = new Stack<>();
+    private BitboardPosition bitboards; // Битборды (только для CLASSIC), синхронны с squares
+    private WideBitboardPosition wideBitboards; // 128-битные битборды (только для OMEGA), синхронны с squares
+    // Атаки фигуры с каждой клетки (номер клетки битборда) без исключения клеток своих фигур.
+    // По ним карты атак обновляются после изменения клетки, без полного пересчёта
+    private long[] pieceAttacks;             // CLASSIC
+    private WideBitboard[] widePieceAttacks; // OMEGA
+    private final WideBitboard attacksBuffer = new WideBitboard();
+    private final WideBitboard diffBuffer = new WideBitboard();
+    private final WideBitboard slidersBuffer = new WideBitboard();
+    // Стек отмены: данные для отмены каждого полухода лежат в заранее выделенных массивах,
+    // примитивы упакованы в int/long, ссылки на фигуры - в массивах Piece[]
+    private static final int UNDO_CAPACITY = 256;
+    private static final int UNDO_MOVED_HAS_MOVED = 1 << 27;    // undoMoves: hasMoved ходящей фигуры до хода
+    private static final int UNDO_CAPTURED_HAS_MOVED = 1 << 28; // undoMoves: hasMoved взятой фигуры до хода
+    private static final int UNDO_NULL_MOVE = 1 << 29;          // undoMoves: нулевой ход (makeNullMove)
+    private static final int UNDO_ROOK_HAS_MOVED = 1 << 18;     // undoCastlings: hasMoved ладьи до рокировки
+    private int undoSize;
+    private int[] undoMoves = new int[UNDO_CAPACITY];      // from | to << 9 | клетка взятой фигуры << 18 | флаги
+    private int[] undoCastlings = new int[UNDO_CAPACITY];  // 0 или rookFrom | rookTo << 9 | флаг
+    private int[] undoStates = new int[UNDO_CAPACITY];     // клетка взятия на проходе (0 - нет) | права рокировки << 9
+    private long[] undoKeys = new long[UNDO_CAPACITY];     // ключ Zobrist до хода
+    private Piece[] undoMovedPieces = new Piece[UNDO_CAPACITY];
+    private Piece[] undoCapturedPieces = new Piece[UNDO_CAPACITY];
+    private final MoveList moveBuffer = new MoveList(); // Буфер генератора для hasLegalMoves и getLegalMoves
+    private final LegalMoveGenerator legalMoveGenerator;
+    private final StaticExchange staticExchange;
+    private final PieceLists pieceLists; // Фигуры по цветам и типам, синхронны с squares
+    // Слагаемые оценки по PieceSquareTables, синхронны с squares: [цвет][MG/EG]
+    private final PieceSquareTables pieceSquareTables;
+    private final int[][] material = new int[2][2];
+    private final int[][] pieceSquareSums = new int[2][2];
+    private int phase;
+    private int mainBoardPieces;         // Фигуры основной доски (без угловых клеток)
+    private long zobristKey;             // Ключ Zobrist текущей позиции
+    private int castlingRights;          // Права на рокировку, учтённые в ключе (маска Zobrist.*_SIDE)
+    private Color sideToMove = Color.WHITE; // Очередь хода для ключа: меняется в movePiece и undoLastMove
 
     public Board(Game game) {
         this.game = game;
         GameType gameType = game.getGameType();
+        this.mailbox = Mailbox.forGameType(gameType);
+        this.squares = new Piece[mailbox.size()];
+        this.pieceLists = new PieceLists(mailbox.size(), mailbox.squareCount());
+        this.pieceSquareTables = PieceSquareTables.forGameType(gameType);
 
         if (gameType == GameType.CLASSIC) {
             this.BOARD_SIZE = 8;
-            this.mainGrid = new Piece[BOARD_SIZE][BOARD_SIZE];
-            this.cornerGrid = null; // Классика не использует углы
+            this.bitboards = new BitboardPosition();
+            this.pieceAttacks = new long[Bitboard.SQUARES];
         } else {
-            this.BOARD_SIZE = 10;
-            this.mainGrid = new Piece[BOARD_SIZE][BOARD_SIZE];
-            this.cornerGrid = new Piece[2][2]; // [0][0] - Белый Чемпион, [0][1] - Белый Волшебник
-            // [1][0] - Черный Чемпион, [1][1] - Черный Волшебник
+            this.BOARD_SIZE = 10; // плюс 4 угловые клетки w1..w4 в рамке мейлбокса
+            this.wideBitboards = new WideBitboardPosition();
+            this.widePieceAttacks = new WideBitboard[WideBitboard.SQUARES];
+            for (int square = 0; square < widePieceAttacks.length; square++) {
+                widePieceAttacks[square] = new WideBitboard();
+            }
         }
 
-        this.whiteAttackMap = new AttackMap();
-        this.blackAttackMap = new AttackMap();
+        this.whiteAttackMap = new AttackMap(this);
+        this.blackAttackMap = new AttackMap(this);
+        this.legalMoveGenerator = new LegalMoveGenerator(this);
+        this.staticExchange = new StaticExchange(this);
     }
 
     // Расстановка фигур на доску
@@ -46,284 +95,404 @@ public class Board {
     private void setupClassicBoard() {
         // 1. Белые пешки (ряд 2 = row=1)
         for (int col = 0; col < BOARD_SIZE; col++) {
-            placePiece(new Pawn(Color.WHITE, new Position(1, col)));
+            placePiece(new Pawn(Color.WHITE, Position.of(1, col)));
         }
 
         // 2. Чёрные пешки (ряд 7 = row=6)
         for (int col = 0; col < BOARD_SIZE; col++) {
-            placePiece(new Pawn(Color.BLACK, new Position(BOARD_SIZE - 2, col)));
+            placePiece(new Pawn(Color.BLACK, Position.of(BOARD_SIZE - 2, col)));
         }
 
         // 3. Белые фигуры (ряд 1 = row=0)
-        placePiece(new Rook(Color.WHITE, new Position(0, 0)));
-        placePiece(new Knight(Color.WHITE, new Position(0, 1)));
-        placePiece(new Bishop(Color.WHITE, new Position(0, 2)));
-        placePiece(new Queen(Color.WHITE, new Position(0, 3)));
-        placePiece(new King(Color.WHITE, new Position(0, 4)));
-        placePiece(new Bishop(Color.WHITE, new Position(0, 5)));
-        placePiece(new Knight(Color.WHITE, new Position(0, 6)));
-        placePiece(new Rook(Color.WHITE, new Position(0, 7)));
+        placePiece(new Rook(Color.WHITE, Position.of(0, 0)));
+        placePiece(new Knight(Color.WHITE, Position.of(0, 1)));
+        placePiece(new Bishop(Color.WHITE, Position.of(0, 2)));
+        placePiece(new Queen(Color.WHITE, Position.of(0, 3)));
+        placePiece(new King(Color.WHITE, Position.of(0, 4)));
+        placePiece(new Bishop(Color.WHITE, Position.of(0, 5)));
+        placePiece(new Knight(Color.WHITE, Position.of(0, 6)));
+        placePiece(new Rook(Color.WHITE, Position.of(0, 7)));
 
         // 4. Чёрные фигуры (ряд 8 = row=7)
-        placePiece(new Rook(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 1)));
-        placePiece(new Knight(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 2)));
-        placePiece(new Bishop(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 3)));
-        placePiece(new King(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 4)));
-        placePiece(new Queen(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 5)));
-        placePiece(new Bishop(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 6)));
-        placePiece(new Knight(Color.BLACK, new Position(BOARD_SIZE - 1, BOARD_SIZE - 7)));
-        placePiece(new Rook(Color.BLACK, new Position(BOARD_SIZE - 1, 0)));
+        placePiece(new Rook(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 1)));
+        placePiece(new Knight(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 2)));
+        placePiece(new Bishop(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 3)));
+        placePiece(new King(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 4)));
+        placePiece(new Queen(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 5)));
+        placePiece(new Bishop(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 6)));
+        placePiece(new Knight(Color.BLACK, Position.of(BOARD_SIZE - 1, BOARD_SIZE - 7)));
+        placePiece(new Rook(Color.BLACK, Position.of(BOARD_SIZE - 1, 0)));
 
         calculateAttackMaps();
+        resetZobristKey();
     }
 
     private void setupOmegaBoard() {
-        // Очищаем основную доску
-        this.mainGrid = new Piece[BOARD_SIZE][BOARD_SIZE];
-
-        // Угловые клетки остаются как есть (cornerGrid[2][2])
-        if (cornerGrid != null) {
-            this.cornerGrid = new Piece[2][2];
-        }
+        // Очищаем доску вместе с угловыми клетками
+        Arrays.fill(squares, null);
+        pieceLists.clear();
+        clearEvaluationTerms();
+        wideBitboards.clear();
+        clearAttackMaps();
 
         // 1. БЕЛЫЕ ПЕШКИ (ряд 2 = row=1) - ВСЕ 10 пешек!
         for (int col = 0; col < 10; col++) {
-            placePiece(new Pawn(Color.WHITE, new Position(1, col)));
+            placePiece(new Pawn(Color.WHITE, Position.of(1, col)));
         }
 
         // 2. БЕЛЫЕ ФИГУРЫ (ряд 1 = row=0) - правильная Omega Chess расстановка
         // a1, b1, c1, d1, e1, f1, g1, h1, i1, j1
-        placePiece(new Champion(Color.WHITE, new Position(0, 0)));   // a1
-        placePiece(new Rook(Color.WHITE, new Position(0, 1)));       // b1
-        placePiece(new Knight(Color.WHITE, new Position(0, 2)));     // c1
-        placePiece(new Bishop(Color.WHITE, new Position(0, 3)));     // d1
-        placePiece(new Queen(Color.WHITE, new Position(0, 4)));      // e1
-        placePiece(new King(Color.WHITE, new Position(0, 5)));       // f1
-        placePiece(new Bishop(Color.WHITE, new Position(0, 6)));     // g1
-        placePiece(new Knight(Color.WHITE, new Position(0, 7)));     // h1
-        placePiece(new Rook(Color.WHITE, new Position(0, 8)));       // i1
-        placePiece(new Champion(Color.WHITE, new Position(0, 9)));   // j1
+        placePiece(new Champion(Color.WHITE, Position.of(0, 0)));   // a1
+        placePiece(new Rook(Color.WHITE, Position.of(0, 1)));       // b1
+        placePiece(new Knight(Color.WHITE, Position.of(0, 2)));     // c1
+        placePiece(new Bishop(Color.WHITE, Position.of(0, 3)));     // d1
+        placePiece(new Queen(Color.WHITE, Position.of(0, 4)));      // e1
+        placePiece(new King(Color.WHITE, Position.of(0, 5)));       // f1
+        placePiece(new Bishop(Color.WHITE, Position.of(0, 6)));     // g1
+        placePiece(new Knight(Color.WHITE, Position.of(0, 7)));     // h1
+        placePiece(new Rook(Color.WHITE, Position.of(0, 8)));       // i1
+        placePiece(new Champion(Color.WHITE, Position.of(0, 9)));   // j1
 
         // 3. ЧЕРНЫЕ ПЕШКИ (ряд 9 = row=8) - ВСЕ 10 пешек!
         for (int col = 0; col < 10; col++) {
-            placePiece(new Pawn(Color.BLACK, new Position(8, col)));
+            placePiece(new Pawn(Color.BLACK, Position.of(8, col)));
         }
 
         // 4. ЧЕРНЫЕ ФИГУРЫ (ряд 10 = row=9)
         // a10, b10, c10, d10, e10, f10, g10, h10, i10, j10
-        placePiece(new Champion(Color.BLACK, new Position(9, 0)));   // a10
-        placePiece(new Rook(Color.BLACK, new Position(9, 1)));       // b10
-        placePiece(new Knight(Color.BLACK, new Position(9, 2)));     // c10
-        placePiece(new Bishop(Color.BLACK, new Position(9, 3)));     // d10
-        placePiece(new Queen(Color.BLACK, new Position(9, 4)));      // e10
-        placePiece(new King(Color.BLACK, new Position(9, 5)));       // f10
-        placePiece(new Bishop(Color.BLACK, new Position(9, 6)));     // g10
-        placePiece(new Knight(Color.BLACK, new Position(9, 7)));     // h10
-        placePiece(new Rook(Color.BLACK, new Position(9, 8)));       // i10
-        placePiece(new Champion(Color.BLACK, new Position(9, 9)));   // j10
-
-        // 5. УГЛОВЫЕ ВОЛШЕБНИКИ (cornerGrid)
-        if (cornerGrid != null) {
-            // БЕЛЫЕ волшебники в верхних углах (ряд -1)
-            cornerGrid[0][0] = new Wizard(Color.WHITE, new Position(-1, -1, true)); // w1 - Белый
-            cornerGrid[0][1] = new Wizard(Color.WHITE, new Position(-1, 10, true)); // w2 - Белый
-            // ЧЕРНЫЕ волшебники в нижних углах (ряд 10)
-            cornerGrid[1][0] = new Wizard(Color.BLACK, new Position(10, -1, true)); // w3 - Черный
-            cornerGrid[1][1] = new Wizard(Color.BLACK, new Position(10, 10, true)); // w4 - ЧерныйcornerGrid[1][1] = new Wizard(Color.WHITE, new Position(10, 10, true)); // w4
-        }
+        placePiece(new Champion(Color.BLACK, Position.of(9, 0)));   // a10
+        placePiece(new Rook(Color.BLACK, Position.of(9, 1)));       // b10
+        placePiece(new Knight(Color.BLACK, Position.of(9, 2)));     // c10
+        placePiece(new Bishop(Color.BLACK, Position.of(9, 3)));     // d10
+        placePiece(new Queen(Color.BLACK, Position.of(9, 4)));      // e10
+        placePiece(new King(Color.BLACK, Position.of(9, 5)));       // f10
+        placePiece(new Bishop(Color.BLACK, Position.of(9, 6)));     // g10
+        placePiece(new Knight(Color.BLACK, Position.of(9, 7)));     // h10
+        placePiece(new Rook(Color.BLACK, Position.of(9, 8)));       // i10
+        placePiece(new Champion(Color.BLACK, Position.of(9, 9)));   // j10
+
+        // 5. УГЛОВЫЕ ВОЛШЕБНИКИ
+        // БЕЛЫЕ волшебники в верхних углах (ряд -1)
+        placePiece(new Wizard(Color.WHITE, Position.corner("w1"))); // w1 - Белый
+        placePiece(new Wizard(Color.WHITE, Position.corner("w2"))); // w2 - Белый
+        // ЧЕРНЫЕ волшебники в нижних углах (ряд 10)
+        placePiece(new Wizard(Color.BLACK, Position.corner("w3"))); // w3 - Черный
+        placePiece(new Wizard(Color.BLACK, Position.corner("w4"))); // w4 - Черный
 
         calculateAttackMaps();
+        resetZobristKey();
     }
 
 
     public void debugPrintOmegaSetup() {
-        System.out.println("\n=== ПРОВЕРКА РАССТАНОВКИ OMEGA CHESS ===");
+        if (!Log.isDebugEnabled()) {
+            return;
+        }
+        Log.debug("\n=== ПРОВЕРКА РАССТАНОВКИ OMEGA CHESS ===");
 
         // Проверяем ВСЕ угловые фигуры
-        System.out.println("Угловые фигуры:");
-        Position[] cornerPositions = {
-                new Position(-1, -1, true),  // w1
-                new Position(-1, 10, true),  // w2
-                new Position(10, -1, true),  // w3
-                new Position(10, 10, true)   // w4
-        };
-
-        for (Position pos : cornerPositions) {
+        Log.debug("Угловые фигуры:");
+        for (Position pos : CORNER_POSITIONS) {
             Piece piece = getPieceAt(pos);
-            System.out.println(pos + ": " +
+            Log.debug(pos + ": " +
                     (piece != null ?
                             piece.getClass().getSimpleName() + " " + piece.getColor() :
                             "null"));
         }
 
         // Проверяем крайние фигуры на основной доске
-        System.out.println("\nКрайние фигуры на основной доске:");
-        System.out.println("a1 (0,0): " +
-                (getPieceAt(new Position(0, 0)) != null ?
-                        getPieceAt(new Position(0, 0)).getClass().getSimpleName() + " " + getPieceAt(new Position(0, 0)).getColor() : "null"));
-        System.out.println("j1 (0,9): " +
-                (getPieceAt(new Position(0, 9)) != null ?
-                        getPieceAt(new Position(0, 9)).getClass().getSimpleName() + " " + getPieceAt(new Position(0, 9)).getColor() : "null"));
+        Log.debug("\nКрайние фигуры на основной доске:");
+        Log.debug("a1 (0,0): " +
+                (getPieceAt(Position.of(0, 0)) != null ?
+                        getPieceAt(Position.of(0, 0)).getClass().getSimpleName() + " " + getPieceAt(Position.of(0, 0)).getColor() : "null"));
+        Log.debug("j1 (0,9): " +
+                (getPieceAt(Position.of(0, 9)) != null ?
+                        getPieceAt(Position.of(0, 9)).getClass().getSimpleName() + " " + getPieceAt(Position.of(0, 9)).getColor() : "null"));
     }
 
+    // Полный пересчёт карт атак. Во время игры карты обновляются по изменённым клеткам
+    // (updateAttacks), полный пересчёт нужен только после расстановки
     public void calculateAttackMaps() {
+        clearAttackMaps();
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                for (int n = 0; n < pieceLists.count(color, type); n++) {
+                    int index = pieceLists.square(color, type, n);
+                    updateAttacks(index, null, squares[index]);
+                }
+            }
+        }
+    }
+
+    private void clearAttackMaps() {
         whiteAttackMap.clear();
         blackAttackMap.clear();
+        if (bitboards != null) {
+            Arrays.fill(pieceAttacks, 0L);
+        } else {
+            for (WideBitboard attacks : widePieceAttacks) {
+                attacks.clear();
+            }
+        }
+    }
 
-        // Сканируем основную доску
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece piece = mainGrid[row][col];
-                if (piece != null) {
-                    Color pieceColor = piece.getColor();
-                    List<Position> attackingSquares = piece.getAttackingSquares(this);
-                    for (Position attackedSquare : attackingSquares) {
-                        if (pieceColor == Color.WHITE) {
-                            whiteAttackMap.addAttack(attackedSquare, piece);
-                        } else {
-                            blackAttackMap.addAttack(attackedSquare, piece);
-                        }
+    private AttackMap getAttackMap(Color color) {
+        return (color == Color.WHITE) ? whiteAttackMap : blackAttackMap;
+    }
+
+    // Клетка index сменила фигуру oldPiece на newPiece (любая из них может быть null):
+    // снимаем атаки прежней фигуры, ставим атаки новой и пересчитываем дальнобойные фигуры,
+    // чьи лучи проходили через эту клетку. Атаки прыгающих фигур и пешек от занятости не зависят
+    private void updateAttacks(int index, Piece oldPiece, Piece newPiece) {
+        int square = mailbox.toSquare(index);
+        if (bitboards != null) {
+            if (oldPiece != null) {
+                setAttacks(oldPiece, square, 0L);
+            }
+            if (newPiece != null) {
+                setAttacks(newPiece, square, bitboards.attacksFrom(newPiece.getType(), newPiece.getColor(), square));
+            }
+            long bit = Bitboard.bit(square);
+            for (Color color : Color.values()) {
+                long sliders = (bitboards.getPieces(color, PieceType.QUEEN)
+                        | bitboards.getPieces(color, PieceType.ROOK)
+                        | bitboards.getPieces(color, PieceType.BISHOP)) & ~bit;
+                while (sliders != 0) {
+                    int slider = Bitboard.lowestSquare(sliders);
+                    sliders &= sliders - 1;
+                    if ((pieceAttacks[slider] & bit) != 0) {
+                        Piece piece = squares[mailbox.fromSquare(slider)];
+                        setAttacks(piece, slider, bitboards.attacksFrom(piece.getType(), color, slider));
                     }
                 }
             }
-        }
-
-        // Сканируем угловые клетки (только для OMEGA)
-        if (game.getGameType() == GameType.OMEGA && cornerGrid != null) {
-            // Проверяем все 4 угловые клетки
-            Position[] cornerPositions = {
-                    new Position(-1, -1, true),  // Белый Чемпион
-                    new Position(-1, 10, true),  // Белый Волшебник
-                    new Position(10, -1, true),  // Черный Чемпион
-                    new Position(10, 10, true)   // Черный Волшебник
-            };
-
-            for (Position cornerPos : cornerPositions) {
-                Piece piece = getPieceAt(cornerPos);
-                if (piece != null) {
-                    Color pieceColor = piece.getColor();
-                    List<Position> attackingSquares = piece.getAttackingSquares(this);
-                    for (Position attackedSquare : attackingSquares) {
-                        if (pieceColor == Color.WHITE) {
-                            whiteAttackMap.addAttack(attackedSquare, piece);
-                        } else {
-                            blackAttackMap.addAttack(attackedSquare, piece);
-                        }
+        } else {
+            // Цели атак ограничены основной доской: на угловые клетки фигуры не ходят
+            if (oldPiece != null) {
+                setAttacks(oldPiece, square, attacksBuffer.clear());
+            }
+            if (newPiece != null) {
+                wideBitboards.attacksFrom(newPiece.getType(), newPiece.getColor(), square, attacksBuffer).andMainBoard();
+                setAttacks(newPiece, square, attacksBuffer);
+            }
+            for (Color color : Color.values()) {
+                WideBitboard sliders = slidersBuffer.set(wideBitboards.getPieces(color, PieceType.QUEEN))
+                        .or(wideBitboards.getPieces(color, PieceType.ROOK))
+                        .or(wideBitboards.getPieces(color, PieceType.BISHOP))
+                        .clear(square);
+                for (int slider = sliders.nextSetBit(0); slider >= 0; slider = sliders.nextSetBit(slider + 1)) {
+                    if (widePieceAttacks[slider].get(square)) {
+                        Piece piece = squares[mailbox.fromSquare(slider)];
+                        wideBitboards.attacksFrom(piece.getType(), color, slider, attacksBuffer).andMainBoard();
+                        setAttacks(piece, slider, attacksBuffer);
                     }
                 }
             }
         }
     }
 
-    public boolean isSquareAttackedBy(Position square, Color attackerColor) {
-        if (attackerColor == Color.WHITE) {
-            return whiteAttackMap.isAttacked(square);
-        } else {
-            return blackAttackMap.isAttacked(square);
+    // Заменить атаки фигуры с клетки square на attacks: в карту идёт только разница
+    private void setAttacks(Piece piece, int square, long attacks) {
+        AttackMap attackMap = getAttackMap(piece.getColor());
+        boolean isPawn = piece.getType() == PieceType.PAWN;
+        long old = pieceAttacks[square];
+        for (long removed = old & ~attacks; removed != 0; removed &= removed - 1) {
+            attackMap.removeAttack(Bitboard.lowestSquare(removed), square, isPawn);
+        }
+        for (long added = attacks & ~old; added != 0; added &= added - 1) {
+            attackMap.addAttack(Bitboard.lowestSquare(added), square, isPawn);
         }
+        pieceAttacks[square] = attacks;
     }
 
-    public List<Piece> getAttackersOf(Position square, Color attackerColor) {
-        if (attackerColor == Color.WHITE) {
-            return whiteAttackMap.getAttackers(square);
-        } else {
-            return blackAttackMap.getAttackers(square);
+    private void setAttacks(Piece piece, int square, WideBitboard attacks) {
+        AttackMap attackMap = getAttackMap(piece.getColor());
+        boolean isPawn = piece.getType() == PieceType.PAWN;
+        WideBitboard old = widePieceAttacks[square];
+        WideBitboard removed = diffBuffer.set(old).andNot(attacks);
+        for (int target = removed.nextSetBit(0); target >= 0; target = removed.nextSetBit(target + 1)) {
+            attackMap.removeAttack(target, square, isPawn);
+        }
+        WideBitboard added = diffBuffer.set(attacks).andNot(old);
+        for (int target = added.nextSetBit(0); target >= 0; target = added.nextSetBit(target + 1)) {
+            attackMap.addAttack(target, square, isPawn);
         }
+        old.set(attacks);
     }
 
-    public boolean isKingInCheck(Color kingColor) {
-        Position kingPos = findKingPosition(kingColor);
-        if (kingPos == null) return false;
+    public BitboardPosition getBitboards() {
+        return bitboards;
+    }
 
-        Color opponentColor = (kingColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
-        return isSquareAttackedBy(kingPos, opponentColor);
+    public WideBitboardPosition getWideBitboards() {
+        return wideBitboards;
     }
 
-    private Position findKingPosition(Color kingColor) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Piece piece = mainGrid[row][col];
-                if (piece instanceof King && piece.getColor() == kingColor) {
-                    return new Position(row, col);
-                }
+    // Клетку, занятую своей фигурой, атакующая сторона "атакует" только пешками -
+    // так карты атак работали всегда, хотя сами карты хранят атаки без этого исключения
+    public boolean isSquareAttackedBy(Position square, Color attackerColor) {
+        int index = mailbox.index(square);
+        return index >= 0 && isSquareAttackedBy(index, attackerColor);
+    }
+
+    // То же по индексу мейлбокса: одно чтение массива карты атак
+    public boolean isSquareAttackedBy(int index, Color attackerColor) {
+        AttackMap attackMap = getAttackMap(attackerColor);
+        Piece occupant = squares[index];
+        int square = mailbox.toSquare(index);
+        return (occupant == null || occupant.getColor() != attackerColor)
+                ? attackMap.isAttacked(square)
+                : attackMap.isAttackedByPawn(square);
+    }
+
+    public List<Piece> getAttackersOf(Position square, Color attackerColor) {
+        List<Piece> attackers = getAttackMap(attackerColor).getAttackers(square);
+        Piece occupant = getPieceAt(square);
+        if (occupant == null || occupant.getColor() != attackerColor) {
+            return attackers;
+        }
+        List<Piece> pawns = new ArrayList<>();
+        for (Piece attacker : attackers) {
+            if (attacker.getType() == PieceType.PAWN) {
+                pawns.add(attacker);
             }
         }
-        return null;
+        return pawns;
     }
 
-    public boolean hasLegalMoves(Color color) {
-        System.out.println("\n=== Проверка hasLegalMoves для " + color + " ===");
-
-        int piecesChecked = 0;
-        int totalMoves = 0;
-
-        // Проверяем фигуры на основной доске
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Position from = new Position(row, col);
-                Piece piece = getPieceAt(from);
-
-                if (piece != null && piece.getColor() == color) {
-                    piecesChecked++;
-                    System.out.println("  Фигура " + piece.getClass().getSimpleName() +
-                            " на " + from + " (" + row + "," + col + ")");
-
-                    List<Position> moves = piece.getPossibleMoves(this);
-                    System.out.println("    Возможных ходов: " + moves.size());
-                    totalMoves += moves.size();
-
-                    for (Position to : moves) {
-                        boolean legal = isMoveLegal(from, to, color);
-                        System.out.println("      " + from + " → " + to + " : " +
-                                (legal ? "ЛЕГАЛЬНЫЙ" : "нелегальный"));
-                        if (legal) {
-                            System.out.println("=== Найден легальный ход, возвращаем true ===");
-                            return true;
-                        }
-                    }
-                }
-            }
+    // Статический размен хода (упакованный Move) в сантипешках для ходящей стороны:
+    // > 0 - серия взятий на клетке to выигрывает материал, < 0 - теряет
+    public int staticExchange(int move) {
+        return staticExchange.evaluate(move);
+    }
+
+    public int staticExchange(Position from, Position to) {
+        int fromIndex = mailbox.index(from);
+        int toIndex = mailbox.index(to);
+        Piece piece = (fromIndex >= 0) ? squares[fromIndex] : null;
+        if (piece == null || toIndex < 0) {
+            return 0;
         }
+        Piece target = squares[toIndex];
+        int flags = (capturedIndex(fromIndex, toIndex) != toIndex) ? Move.FLAG_EN_PASSANT : 0;
+        return staticExchange.evaluate(Move.encode(fromIndex, toIndex, piece.getType(),
+                (target != null) ? target.getType() : null, flags));
+    }
 
-        // Проверяем угловые фигуры (только для OMEGA)
-        if (game.getGameType() == GameType.OMEGA) {
-            Position[] cornerPositions = {
-                    new Position(-1, -1, true),
-                    new Position(-1, 10, true),
-                    new Position(10, -1, true),
-                    new Position(10, 10, true)
-            };
-
-            for (Position from : cornerPositions) {
-                Piece piece = getPieceAt(from);
-                if (piece != null && piece.getColor() == color) {
-                    piecesChecked++;
-                    System.out.println("  Угловая фигура " + piece.getClass().getSimpleName() +
-                            " на " + from);
-
-                    List<Position> moves = piece.getPossibleMoves(this);
-                    System.out.println("    Возможных ходов: " + moves.size());
-                    totalMoves += moves.size();
-
-                    for (Position to : moves) {
-                        boolean legal = isMoveLegal(from, to, color);
-                        System.out.println("      " + from + " → " + to + " : " +
-                                (legal ? "ЛЕГАЛЬНЫЙ" : "нелегальный"));
-                        if (legal) {
-                            System.out.println("=== Найден легальный ход, возвращаем true ===");
-                            return true;
-                        }
-                    }
-                }
-            }
+    // Висит ли фигура: может ли противник выгодно начать размен на её клетке
+    public boolean isHanging(Position square) {
+        int index = mailbox.index(square);
+        Piece piece = (index >= 0) ? squares[index] : null;
+        return piece != null && staticExchange.evaluateCapture(index, piece.getColor().opposite()) > 0;
+    }
+
+    public boolean isKingInCheck(Color kingColor) {
+        // Проверка "от клетки короля" по битбордам, карты атак не нужны
+        if (bitboards != null) {
+            int kingSquare = bitboards.getKingSquare(kingColor);
+            return kingSquare >= 0 && bitboards.isSquareAttacked(kingSquare, kingColor.opposite());
         }
+        int kingSquare = wideBitboards.getKingSquare(kingColor);
+        return kingSquare >= 0 && wideBitboards.isSquareAttacked(kingSquare, kingColor.opposite());
+    }
+
+    private Position findKingPosition(Color kingColor) {
+        int kingIndex = getKingIndex(kingColor);
+        return (kingIndex >= 0) ? mailbox.toPosition(kingIndex) : null;
+    }
+
+    // Индекс мейлбокса клетки короля или -1, если короля нет
+    public int getKingIndex(Color kingColor) {
+        return pieceLists.kingSquare(kingColor);
+    }
+
+    // Атакована ли клетка по текущим битбордам (без учёта своих фигур на клетке, как в isKingInCheck)
+    boolean isSquareAttackedOnBitboards(int index, Color attackerColor) {
+        int square = mailbox.toSquare(index);
+        return (bitboards != null)
+                ? bitboards.isSquareAttacked(square, attackerColor)
+                : wideBitboards.isSquareAttacked(square, attackerColor);
+    }
 
-        System.out.println("Итог: " + piecesChecked + " фигур, " +
-                totalMoves + " возможных ходов, легальных: 0");
-        System.out.println("=== Возвращаем false ===");
+    // Есть ли у стороны хотя бы один легальный ход
+    public boolean hasLegalMoves(Color color) {
+        if (legalMoveGenerator.hasAnyLegalMove(color)) {
+            return true;
+        }
+        Log.debug(() -> "=== hasLegalMoves: у " + color + " нет легальных ходов ===");
         return false;
     }
 
+    // Легальные ходы стороны в упакованном формате (Move), дописываются в moves
+    public void generateLegalMoves(Color color, MoveList moves) {
+        legalMoveGenerator.generate(color, moves);
+    }
+
+    // Легальные ходы одной фигуры с клетки мейлбокса from, дописываются в moves
+    public void generateLegalMoves(int from, MoveList moves) {
+        legalMoveGenerator.generateForPiece(from, moves);
+    }
+
+    // Клетки, на которые фигура с клетки from может легально пойти (подсветка в GUI)
+    public List<Position> getLegalMoves(Position from) {
+        moveBuffer.clear();
+        int index = mailbox.index(from);
+        if (index >= 0) {
+            legalMoveGenerator.generateForPiece(index, moveBuffer);
+        }
+        return MoveCalculator.toTargets(moveBuffer, mailbox);
+    }
+
+    // Не оставляет ли упакованный ход своего короля под шахом
+    public boolean isMoveLegal(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = Move.isEnPassant(move) ? enPassantCaptureIndex(squares[from].getColor()) : to;
+        return !leavesKingInCheck(from, to, captured);
+    }
+
+    // Пробный ход по мейлбоксу и битбордам. Переставляется ходящая фигура и снимается взятая
+    // (при взятии на проходе она стоит не на клетке to); ладья при рокировке остаётся на месте.
+    // Шах проверяется по битбордам, поэтому карты атак и позиции фигур не трогаются
+    private boolean leavesKingInCheck(int from, int to, int capturedIndex) {
+        Piece movedPiece = squares[from];
+        Piece capturedPiece = squares[capturedIndex];
+
+        placeForTrial(capturedIndex, null);
+        placeForTrial(from, null);
+        placeForTrial(to, movedPiece);
+        boolean kingInCheck = isKingInCheck(movedPiece.getColor());
+
+        placeForTrial(to, null);
+        placeForTrial(capturedIndex, capturedPiece);
+        placeForTrial(from, movedPiece);
+        return kingInCheck;
+    }
+
+    // Клетка пешки, которую бьёт на проходе пешка цвета color: сразу за целью взятия на проходе
+    // по ходу сделавшей длинный ход пешки. В Omega пешка проскакивает две клетки и бить её
+    // можно на любую из них, но сама она стоит в одном и том же месте
+    int enPassantCaptureIndex(Color color) {
+        return mailbox.index(game.getEnPassantTarget()) + mailbox.offset(color == Color.WHITE ? -1 : +1, 0);
+    }
+
+    // Клетка взятой фигуры для хода from-to: to или, для взятия на проходе, клетка пешки.
+    // Пешка уходит по диагонали на пустую клетку только взятием на проходе
+    private int capturedIndex(int from, int to) {
+        Piece piece = squares[from];
+        if (piece instanceof Pawn && squares[to] == null && game.getEnPassantTarget() != null
+                && mailbox.col(from) != mailbox.col(to)) {
+            return enPassantCaptureIndex(piece.getColor());
+        }
+        return to;
+    }
+
+    // Переставить фигуру только в мейлбоксе и битбордах (карты атак не трогаются)
+    void placeForTrial(int index, Piece piece) {
+        updateBitboards(index, squares[index], piece);
+        squares[index] = piece;
+    }
+
     public boolean isMoveLegal(Position from, Position to, Color movingColor) {
         // Базовые проверки
         Piece piece = getPieceAt(from);
@@ -351,26 +520,9 @@ public class Board {
     }
 
     private boolean wouldMoveLeaveKingInCheck(Position from, Position to, Color movingColor) {
-        // Сохраняем состояние
-        Piece movedPiece = getPieceAt(from);
-        Piece capturedPiece = getPieceAt(to);
-
-        // Временный ход
-        removePieceAtInternal(from);
-        setPieceAtInternal(movedPiece, to);
-
-        // Пересчитываем карты атак
-        calculateAttackMaps();
-
-        // Проверяем, не под шахом ли король
-        boolean kingInCheck = isKingInCheck(movingColor);
-
-        // Восстанавливаем состояние
-        setPieceAtInternal(movedPiece, from);
-        setPieceAtInternal(capturedPiece, to);
-        calculateAttackMaps();
-
-        return kingInCheck;
+        int fromIndex = mailbox.index(from);
+        int toIndex = mailbox.index(to);
+        return leavesKingInCheck(fromIndex, toIndex, capturedIndex(fromIndex, toIndex));
     }
 
     public boolean isCheckmate(Color color) {
@@ -385,53 +537,23 @@ public class Board {
         return game;
     }
 
+    // Адаптер для кода, работающего с Position (GUI, консоль, CastlingInfo)
     public Piece getPieceAt(Position position) {
-        GameType gameType = game.getGameType();
-
-        // ВАЖНО: проверяем ВАЛИДНОСТЬ позиции для текущего типа игры
-        if (!position.isValid(gameType)) {
-            return null;
-        }
-
-        if (position.isCornerCell()) {
-            // Угловые клетки - только для OMEGA
-            if (gameType != GameType.OMEGA || cornerGrid == null) {
-                return null;
-            }
-            return getCornerPiece(position);
-        } else {
-            // Основная доска
-            // ВАЖНО: проверяем границы массива
-            if (position.getRow() < 0 || position.getRow() >= BOARD_SIZE ||
-                    position.getCol() < 0 || position.getCol() >= BOARD_SIZE) {
-                return null;
-            }
-            return mainGrid[position.getRow()][position.getCol()];
-        }
+        int index = mailbox.index(position);
+        return (index >= 0) ? squares[index] : null;
     }
 
-    private Piece getCornerPiece(Position cornerPos) {
-        int row = cornerPos.getRow();
-        int col = cornerPos.getCol();
-
-        if (row == -1 && col == -1) return cornerGrid[0][0]; // w1 - Белый Волшебник
-        if (row == -1 && col == 10) return cornerGrid[0][1]; // w2 - Белый Волшебник
-        if (row == 10 && col == -1) return cornerGrid[1][0]; // w3 - Черный Волшебник
-        if (row == 10 && col == 10) return cornerGrid[1][1]; // w4 - Черный Волшебник
-
-        return null;
+    // Фигура по индексу мейлбокса; для клеток рамки всегда null
+    public Piece getPieceAt(int index) {
+        return squares[index];
     }
 
-    private void setCornerPiece(Position cornerPos, Piece piece) {
-        if (cornerGrid == null) return;
-
-        int row = cornerPos.getRow();
-        int col = cornerPos.getCol();
+    public PieceLists getPieceLists() {
+        return pieceLists;
+    }
 
-        if (row == -1 && col == -1) cornerGrid[0][0] = piece;
-        else if (row == -1 && col == 10) cornerGrid[0][1] = piece;
-        else if (row == 10 && col == -1) cornerGrid[1][0] = piece;
-        else if (row == 10 && col == 10) cornerGrid[1][1] = piece;
+    public Mailbox getMailbox() {
+        return mailbox;
     }
 
     // Для начальной расстановки
@@ -454,24 +576,24 @@ public class Board {
         if (piece instanceof King) {
             King king = (King) piece;
 
+            List<CastlingInfo> possibleCastlings = MoveCalculator.getPossibleCastlings(king, this);
+
             // === ОТЛАДОЧНЫЙ ВЫВОД ===
-            System.out.println("\n=== DEBUG CASTLING CHECK ===");
-            System.out.println("King at: " + from);
-            System.out.println("Target: " + to);
-            System.out.println("Game type: " + game.getGameType());
-
-            List<CastlingInfo> possibleCastlingsDebug = MoveCalculator.getPossibleCastlings(king, this);
-            System.out.println("Possible castlings found: " + possibleCastlingsDebug.size());
-
-            for (CastlingInfo castling : possibleCastlingsDebug) {
-                System.out.println("  - " + castling);
-                System.out.println("    King to: " + castling.kingTo);
-                System.out.println("    Compare with target: " + to + " -> equals: " + to.equals(castling.kingTo));
+            if (Log.isDebugEnabled()) {
+                Log.debug("\n=== DEBUG CASTLING CHECK ===");
+                Log.debug("King at: " + from);
+                Log.debug("Target: " + to);
+                Log.debug("Game type: " + game.getGameType());
+                Log.debug("Possible castlings found: " + possibleCastlings.size());
+
+                for (CastlingInfo castling : possibleCastlings) {
+                    Log.debug("  - " + castling);
+                    Log.debug("    King to: " + castling.kingTo);
+                    Log.debug("    Compare with target: " + to + " -> equals: " + to.equals(castling.kingTo));
+                }
             }
             // === КОНЕЦ ОТЛАДОЧНОГО ВЫВОДА ===
 
-            List<CastlingInfo> possibleCastlings = MoveCalculator.getPossibleCastlings(king, this);
-
             for (CastlingInfo castling : possibleCastlings) {
                 if (to.equals(castling.kingTo)) {
                     // Проверяем, что рокировка допустима
@@ -479,17 +601,17 @@ public class Board {
                         return false;
                     }
 
-                    // СОЗДАЁМ СНАПШОТ ПЕРЕД РОКИРОВКОЙ
-                    MoveSnapshot snapshot = createSnapshotBeforeMove(from, to, piece);
-                    moveHistory.push(snapshot);
-
                     // ВЫПОЛНЯЕМ РОКИРОВКУ
                     Piece rook = getPieceAt(castling.rookFrom);
                     if (!(rook instanceof Rook)) {
-                        moveHistory.pop();
                         return false;
                     }
 
+                    // ЗАПИСЫВАЕМ ДАННЫЕ ДЛЯ ОТМЕНЫ ПЕРЕД РОКИРОВКОЙ
+                    long enPassantKeyBefore = enPassantKey(game.getEnPassantTarget(), sideToMove);
+                    int ply = pushUndo(mailbox.index(from), mailbox.index(to), piece, 0, null);
+                    recordCastlingRook(ply, mailbox.index(castling.rookFrom), mailbox.index(castling.rookTo), rook);
+
                     // Переместить короля
                     removePieceAtInternal(castling.kingFrom);
                     setPieceAtInternal(king, castling.kingTo);
@@ -500,11 +622,11 @@ public class Board {
                     setPieceAtInternal(rook, castling.rookTo);
                     ((Rook) rook).markAsMoved();
 
-                    // Обновить состояние
+                    // Обновить состояние (карты атак уже обновлены по изменённым клеткам)
                     game.clearEnPassantTarget();
-                    calculateAttackMaps();
+                    updateZobristAfterMove(enPassantKeyBefore);
 
-                    System.out.println("=== CASTLING SUCCESSFUL ===");
+                    Log.debug("=== CASTLING SUCCESSFUL ===");
                     return true;
                 }
             }
@@ -520,9 +642,10 @@ public class Board {
             return false;
         }
 
-        // СОЗДАЁМ СНАПШОТ ПЕРЕД ОБЫЧНЫМ ХОДОМ
-        MoveSnapshot snapshot = createSnapshotBeforeMove(from, to, piece);
-        moveHistory.push(snapshot);
+        // ЗАПИСЫВАЕМ ДАННЫЕ ДЛЯ ОТМЕНЫ ПЕРЕД ОБЫЧНЫМ ХОДОМ
+        long enPassantKeyBefore = enPassantKey(game.getEnPassantTarget(), sideToMove);
+        int toIndex = mailbox.index(to);
+        int ply = pushUndo(mailbox.index(from), toIndex, piece, toIndex, squares[toIndex]);
 
         // Отмечаем, что король и/или ладья ходили (для обычных ходов)
         if (piece instanceof King) {
@@ -533,21 +656,19 @@ public class Board {
 
         // Проверка взятия на проходе
         if (piece instanceof Pawn) {
-            Position enPassantTarget = game.getEnPassantTarget();
-            if (enPassantTarget != null && to.equals(enPassantTarget)) {
-                // 1. ВЫЧИСЛИТЬ позицию взятой пешки
-                int direction = (piece.getColor() == Color.WHITE) ? -1 : +1;
-                int capturedRow = to.getRow() + direction;
-                int capturedCol = to.getCol();
-                Position capturedPos = new Position(capturedRow, capturedCol);
+            int capturedIndex = capturedIndex(mailbox.index(from), toIndex);
+            if (capturedIndex != toIndex) {
+                // 1. ВЫЧИСЛИТЬ позицию взятой пешки (в Omega бьют на любую из двух проскоченных клеток)
+                Position capturedPos = mailbox.toPosition(capturedIndex);
 
                 // 2. НАЙТИ пешку на этой позиции
                 Piece capturedPiece = getPieceAt(capturedPos);
 
                 // 3. ЕСЛИ пешка существует:
                 if (capturedPiece != null && capturedPiece instanceof Pawn) {
-                    // - Добавить в capturedPieces
+                    // - Добавить в capturedPieces (и в данные отмены - взятая пешка стоит не на клетке to)
                     game.capturePiece(capturedPiece);
+                    recordCapture(ply, mailbox.index(capturedPos), capturedPiece);
                     // - Удалить с доски
                     removePieceAtInternal(capturedPos);
                 }
@@ -577,7 +698,7 @@ public class Board {
             if (rowDiff == pawnInitialMaxSteps) { // 2 для CLASSIC, 3 для OMEGA
                 // Устанавливаем позицию ЗА пешкой (поле, которое она проскочила)
                 int direction = (piece.getColor() == Color.WHITE) ? -1 : 1;
-                Position targetPos = new Position(to.getRow() + direction, to.getCol());
+                Position targetPos = Position.of(to.getRow() + direction, to.getCol());
                 game.setEnPassantTarget(targetPos);
             } else {
                 // Если не двойной ход - очищаем enPassantTarget
@@ -590,27 +711,407 @@ public class Board {
 
         // Ставим на новую клетку (затираем фигуру противника, если есть)
         setPieceAtInternal(piece, to);
-        calculateAttackMaps();
+        updateZobristAfterMove(enPassantKeyBefore);
         return true;
     }
 
-    private void setPieceAtInternal(Piece piece, Position position) {
-        if (piece != null) {
-            piece.setPosition(position);
+    // Сделать упакованный ход из generateLegalMoves: без повторной проверки легальности,
+    // без отладочного вывода и без создания объектов (кроме фигуры превращения).
+    // Превращение берётся из хода. Отменяется unmakeMove/undoLastMove
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = squares[from];
+        long enPassantKeyBefore = enPassantKey(game.getEnPassantTarget(), sideToMove);
+
+        if (Move.isCastling(move)) {
+            CastlingInfo castling = findCastling(piece.getColor(), to);
+            int rookFrom = mailbox.index(castling.rookFrom);
+            int rookTo = mailbox.index(castling.rookTo);
+            Piece rook = squares[rookFrom];
+            int ply = pushUndo(from, to, piece, 0, null);
+            recordCastlingRook(ply, rookFrom, rookTo, rook);
+
+            removePieceAtInternal(from);
+            setPieceAtInternal(piece, to);
+            ((King) piece).markAsMoved();
+            removePieceAtInternal(rookFrom);
+            setPieceAtInternal(rook, rookTo);
+            ((Rook) rook).markAsMoved();
+            game.clearEnPassantTarget();
+        } else {
+            int capturedIndex = to;
+            if (Move.isEnPassant(move)) {
+                // Взятая пешка стоит сразу за целью взятия на проходе (по направлению хода)
+                capturedIndex = enPassantCaptureIndex(piece.getColor());
+            }
+            Piece captured = squares[capturedIndex];
+            pushUndo(from, to, piece, capturedIndex, captured);
+
+            if (captured != null) {
+                addCaptured(captured);
+                if (capturedIndex != to) {
+                    removePieceAtInternal(capturedIndex);
+                }
+            }
+            removePieceAtInternal(from);
+            markAsMoved(piece);
+
+            // Ход пешки на полную начальную длину открывает взятие на проходе
+            int rowDiff = Math.abs(mailbox.row(to) - mailbox.row(from));
+            if (Move.isPawnPush(move) && rowDiff == game.getGameType().getPawnInitialMaxSteps()) {
+                int direction = (piece.getColor() == Color.WHITE) ? -1 : 1;
+                game.setEnPassantTarget(mailbox.toPosition(to + mailbox.offset(direction, 0)));
+            } else {
+                game.clearEnPassantTarget();
+            }
+
+            PieceType promotion = Move.promotion(move);
+            setPieceAtInternal((promotion != null) ? createPiece(promotion, piece.getColor()) : piece, to);
+        }
+        updateZobristAfterMove(enPassantKeyBefore);
+    }
+
+    // Отменить ход, сделанный makeMove (или movePiece)
+    public void unmakeMove() {
+        undoLastMove();
+    }
+
+    // Нулевой ход для поиска: очередь хода переходит к сопернику, фигуры стоят на месте,
+    // взятие на проходе пропадает. Отменяется unmakeMove
+    public void makeNullMove() {
+        if (undoSize == undoMoves.length) {
+            growUndoStack();
         }
+        int ply = undoSize++;
+        Position enPassantTarget = game.getEnPassantTarget();
+        undoMoves[ply] = UNDO_NULL_MOVE;
+        undoCastlings[ply] = 0;
+        undoStates[ply] = ((enPassantTarget != null) ? mailbox.index(enPassantTarget) : 0) | (castlingRights << 9);
+        undoKeys[ply] = zobristKey;
+        undoMovedPieces[ply] = null;
+        undoCapturedPieces[ply] = null;
+
+        game.clearEnPassantTarget();
+        zobristKey ^= Zobrist.sideToMove() ^ enPassantKey(enPassantTarget, sideToMove);
+        sideToMove = sideToMove.opposite();
+    }
+
+    private CastlingInfo findCastling(Color color, int kingTo) {
+        List<CastlingInfo> castlings = CastlingInfo.getAllForGameType(game.getGameType(), color);
+        for (int i = 0; i < castlings.size(); i++) {
+            if (mailbox.index(castlings.get(i).kingTo) == kingTo) {
+                return castlings.get(i);
+            }
+        }
+        throw new IllegalArgumentException("Нет рокировки на клетку " + mailbox.toPosition(kingTo));
+    }
 
-        if (position.isCornerCell()) {
-            setCornerPiece(position, piece);
+    private void addCaptured(Piece piece) {
+        if (piece.getColor() == Color.WHITE) {
+            game.getCapturedWhitePieces().add(piece);
         } else {
-            mainGrid[position.getRow()][position.getCol()] = piece;
+            game.getCapturedBlackPieces().add(piece);
+        }
+    }
+
+    private static void markAsMoved(Piece piece) {
+        if (piece instanceof King) {
+            ((King) piece).markAsMoved();
+        } else if (piece instanceof Rook) {
+            ((Rook) piece).markAsMoved();
+        } else if (piece instanceof Pawn) {
+            ((Pawn) piece).markAsMoved();
+        }
+    }
+
+    private static Piece createPiece(PieceType type, Color color) {
+        switch (type) {
+            case PAWN:
+                return new Pawn(color, null);
+            case KING:
+                return new King(color, null);
+            case QUEEN:
+                return new Queen(color, null);
+            case ROOK:
+                return new Rook(color, null);
+            case BISHOP:
+                return new Bishop(color, null);
+            case KNIGHT:
+                return new Knight(color, null);
+            case CHAMPION:
+                return new Champion(color, null);
+            case WIZARD:
+                return new Wizard(color, null);
+            default:
+                throw new IllegalArgumentException("Неизвестный тип фигуры: " + type);
+        }
+    }
+
+    // Расстановка по снимку на пустую доску (Game.fromSnapshot). Флаги hasMoved восстанавливаются
+    // так, как их понимают правила: король и ладья не ходили, если за ними сохранилось право
+    // на рокировку, пешка не ходила, если стоит на начальном ряду
+    void setupFromSnapshot(PositionSnapshot snapshot) {
+        for (int square = 0; square < snapshot.squareCount(); square++) {
+            PieceType type = snapshot.getPieceType(square);
+            if (type == null) {
+                continue;
+            }
+            Color color = snapshot.getPieceColor(square);
+            int index = mailbox.fromSquare(square);
+            Piece piece = createPiece(type, color);
+            if (!isUnmovedInSnapshot(snapshot, piece, index)) {
+                markAsMoved(piece);
+            }
+            setPieceAtInternal(piece, index);
+        }
+        calculateAttackMaps();
+        sideToMove = snapshot.getSideToMove();
+        castlingRights = computeCastlingRights();
+        zobristKey = computeZobristKey();
+    }
+
+    private boolean isUnmovedInSnapshot(PositionSnapshot snapshot, Piece piece, int index) {
+        Color color = piece.getColor();
+        boolean white = (color == Color.WHITE);
+        int kingSide = white ? Zobrist.WHITE_KING_SIDE : Zobrist.BLACK_KING_SIDE;
+        int queenSide = white ? Zobrist.WHITE_QUEEN_SIDE : Zobrist.BLACK_QUEEN_SIDE;
+        switch (piece.getType()) {
+            case KING:
+                return snapshot.hasCastlingRight(kingSide | queenSide);
+            case ROOK:
+                return (snapshot.hasCastlingRight(kingSide) && index == mailbox.index(getRookKingSidePosition(color)))
+                        || (snapshot.hasCastlingRight(queenSide) && index == mailbox.index(getRookQueenSidePosition(color)));
+            case PAWN:
+                return mailbox.row(index) == (white ? 1 : BOARD_SIZE - 2);
+            default:
+                return true;
+        }
+    }
+
+    private void setPieceAtInternal(Piece piece, Position position) {
+        setPieceAtInternal(piece, mailbox.index(position));
+    }
+
+    private void setPieceAtInternal(Piece piece, int index) {
+        if (piece != null) {
+            piece.setPosition(mailbox.toPosition(index));
         }
+        Piece oldPiece = squares[index];
+        updateBitboards(index, oldPiece, piece);
+        updatePieceLists(index, oldPiece, piece);
+        updateZobristPieces(index, oldPiece, piece);
+        updateEvaluationTerms(index, oldPiece, piece);
+        squares[index] = piece;
+        updateAttacks(index, oldPiece, piece);
     }
 
     private void removePieceAtInternal(Position position) {
-        if (position.isCornerCell()) {
-            setCornerPiece(position, null);
+        removePieceAtInternal(mailbox.index(position));
+    }
+
+    private void removePieceAtInternal(int index) {
+        Piece oldPiece = squares[index];
+        updateBitboards(index, oldPiece, null);
+        updatePieceLists(index, oldPiece, null);
+        updateZobristPieces(index, oldPiece, null);
+        updateEvaluationTerms(index, oldPiece, null);
+        squares[index] = null;
+        updateAttacks(index, oldPiece, null);
+    }
+
+    private void updatePieceLists(int index, Piece oldPiece, Piece newPiece) {
+        if (oldPiece != null) {
+            pieceLists.remove(oldPiece.getColor(), oldPiece.getType(), index);
+        }
+        if (newPiece != null) {
+            pieceLists.add(newPiece.getColor(), newPiece.getType(), index);
+        }
+    }
+
+    private void updateZobristPieces(int index, Piece oldPiece, Piece newPiece) {
+        int square = mailbox.toSquare(index);
+        if (oldPiece != null) {
+            zobristKey ^= Zobrist.piece(oldPiece.getColor(), oldPiece.getType(), square);
+        }
+        if (newPiece != null) {
+            zobristKey ^= Zobrist.piece(newPiece.getColor(), newPiece.getType(), square);
+        }
+    }
+
+    // === СЛАГАЕМЫЕ ОЦЕНКИ ===
+    // Меняются только в setPieceAtInternal/removePieceAtInternal, поэтому ход, превращение
+    // (replacePiece) и отмена хода поддерживают их точно так же, как списки фигур и ключ
+
+    private void updateEvaluationTerms(int index, Piece oldPiece, Piece newPiece) {
+        int square = mailbox.toSquare(index);
+        int weight = mailbox.isMain(index) ? 1 : 0;
+        if (oldPiece != null) {
+            addEvaluationTerms(oldPiece.getColor(), oldPiece.getType(), square, -1);
+            mainBoardPieces -= weight;
+        }
+        if (newPiece != null) {
+            addEvaluationTerms(newPiece.getColor(), newPiece.getType(), square, +1);
+            mainBoardPieces += weight;
+        }
+    }
+
+    private void addEvaluationTerms(Color color, PieceType type, int square, int sign) {
+        int[] colorMaterial = material[color.ordinal()];
+        int[] colorSums = pieceSquareSums[color.ordinal()];
+        for (int stage = PieceSquareTables.MG; stage <= PieceSquareTables.EG; stage++) {
+            colorMaterial[stage] += sign * PieceSquareTables.material(stage, type);
+            colorSums[stage] += sign * pieceSquareTables.value(stage, color, type, square);
+        }
+        phase += sign * PieceSquareTables.phaseWeight(type);
+    }
+
+    private void clearEvaluationTerms() {
+        for (int color = 0; color < 2; color++) {
+            Arrays.fill(material[color], 0);
+            Arrays.fill(pieceSquareSums[color], 0);
+        }
+        phase = 0;
+        mainBoardPieces = 0;
+    }
+
+    // Материал стороны по стоимости PieceSquareTables.material в фазе MG или EG
+    public int getMaterial(Color color, int stage) {
+        return material[color.ordinal()][stage];
+    }
+
+    // Сумма бонусов таблиц "фигура-клетка" стороны в фазе MG или EG
+    public int getPieceSquareSum(Color color, int stage) {
+        return pieceSquareSums[color.ordinal()][stage];
+    }
+
+    // Фаза партии: сумма PieceSquareTables.phaseWeight всех фигур (начальная позиция - getMaxPhase)
+    public int getPhase() {
+        return phase;
+    }
+
+    public int getPieceCount(Color color, PieceType type) {
+        return pieceLists.count(color, type);
+    }
+
+    public int getMainBoardPieceCount() {
+        return mainBoardPieces;
+    }
+
+    // === КЛЮЧ ZOBRIST ===
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    // Права на рокировку (маска Zobrist.*_SIDE)
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    // Ключ, посчитанный заново по всей позиции (после расстановки и для проверки инкрементального)
+    public long computeZobristKey() {
+        long key = 0L;
+        for (Color color : Color.values()) {
+            for (PieceType type : PieceType.values()) {
+                for (int n = 0; n < pieceLists.count(color, type); n++) {
+                    key ^= Zobrist.piece(color, type, mailbox.toSquare(pieceLists.square(color, type, n)));
+                }
+            }
+        }
+        if (sideToMove == Color.BLACK) {
+            key ^= Zobrist.sideToMove();
+        }
+        key ^= Zobrist.castling(computeCastlingRights());
+        key ^= enPassantKey(game.getEnPassantTarget(), sideToMove);
+        return key;
+    }
+
+    private void resetZobristKey() {
+        sideToMove = Color.WHITE;
+        castlingRights = computeCastlingRights();
+        zobristKey = computeZobristKey();
+    }
+
+    // Фигуры в ключе уже обновлены по клеткам, остаются очередь хода, рокировки и взятие на проходе.
+    // Слагаемое взятия на проходе до хода считается до перестановки фигур: оно зависит от пешек
+    private void updateZobristAfterMove(long enPassantKeyBefore) {
+        zobristKey ^= Zobrist.sideToMove();
+        sideToMove = sideToMove.opposite();
+
+        int rights = computeCastlingRights();
+        zobristKey ^= Zobrist.castling(castlingRights) ^ Zobrist.castling(rights);
+        castlingRights = rights;
+
+        zobristKey ^= enPassantKeyBefore ^ enPassantKey(game.getEnPassantTarget(), sideToMove);
+    }
+
+    // Вертикаль цели взятия на проходе входит в ключ, только если пешка стороны color бьёт
+    // одну из проскоченных клеток: иначе одна и та же позиция получала бы разные ключи
+    // в зависимости от того, был ли последний ход длинным ходом пешки
+    private long enPassantKey(Position enPassantTarget, Color color) {
+        if (enPassantTarget == null) {
+            return 0L;
+        }
+        int forward = mailbox.offset(color == Color.WHITE ? +1 : -1, 0);
+        int landing = mailbox.index(enPassantTarget);
+        for (int i = 1; i < game.getGameType().getPawnInitialMaxSteps(); i++, landing += forward) {
+            if (isPawnOf(landing - forward + 1, color) || isPawnOf(landing - forward - 1, color)) {
+                return Zobrist.enPassantFile(enPassantTarget.getCol());
+            }
+        }
+        return 0L;
+    }
+
+    private boolean isPawnOf(int index, Color color) {
+        Piece piece = squares[index];
+        return piece instanceof Pawn && piece.getColor() == color;
+    }
+
+    // Права на рокировку по флагам hasMoved короля и ладей на исходных клетках
+    private int computeCastlingRights() {
+        int rights = 0;
+        if (hasCastlingRight(Color.WHITE, getRookKingSidePosition(Color.WHITE))) {
+            rights |= Zobrist.WHITE_KING_SIDE;
+        }
+        if (hasCastlingRight(Color.WHITE, getRookQueenSidePosition(Color.WHITE))) {
+            rights |= Zobrist.WHITE_QUEEN_SIDE;
+        }
+        if (hasCastlingRight(Color.BLACK, getRookKingSidePosition(Color.BLACK))) {
+            rights |= Zobrist.BLACK_KING_SIDE;
+        }
+        if (hasCastlingRight(Color.BLACK, getRookQueenSidePosition(Color.BLACK))) {
+            rights |= Zobrist.BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    private boolean hasCastlingRight(Color color, Position rookPos) {
+        int kingIndex = getKingIndex(color);
+        if (kingIndex < 0 || ((King) squares[kingIndex]).hasMoved()) {
+            return false;
+        }
+        Rook rook = getRookAt(rookPos, color);
+        return rook != null && !rook.hasMoved();
+    }
+
+    // Держим битборды в соответствии с мейлбоксом: снимаем прежнюю фигуру клетки и ставим новую
+    private void updateBitboards(int index, Piece oldPiece, Piece newPiece) {
+        int square = mailbox.toSquare(index);
+        if (bitboards != null) {
+            if (oldPiece != null) {
+                bitboards.removePiece(oldPiece.getColor(), oldPiece.getType(), square);
+            }
+            if (newPiece != null) {
+                bitboards.addPiece(newPiece.getColor(), newPiece.getType(), square);
+            }
         } else {
-            mainGrid[position.getRow()][position.getCol()] = null;
+            if (oldPiece != null) {
+                wideBitboards.removePiece(oldPiece.getColor(), oldPiece.getType(), square);
+            }
+            if (newPiece != null) {
+                wideBitboards.addPiece(newPiece.getColor(), newPiece.getType(), square);
+            }
         }
     }
 
@@ -630,73 +1131,65 @@ public class Board {
         }
     }
 
-    private MoveSnapshot createSnapshotBeforeMove(Position from, Position to, Piece piece) {
-        // Получаем фигуру на целевой клетке (если есть)
-        Piece capturedPiece = getPieceAt(to);
-        Position capturedPos = (capturedPiece != null) ? to : null;
-
-        // Получаем информацию о рокировках - ИСПРАВЛЕНО для Omega Chess
-        Position whiteKingPos = findKingPosition(Color.WHITE);
-        Position blackKingPos = findKingPosition(Color.BLACK);
-        King whiteKing = (whiteKingPos != null) ? (King) getPieceAt(whiteKingPos) : null;
-        King blackKing = (blackKingPos != null) ? (King) getPieceAt(blackKingPos) : null;
-
-        // Находим ладьи для рокировок - ИСПРАВЛЕНО: динамические координаты для разных типов игр
-        Rook whiteRookKingSide = getRookAt(getRookKingSidePosition(Color.WHITE), Color.WHITE);
-        Rook whiteRookQueenSide = getRookAt(getRookQueenSidePosition(Color.WHITE), Color.WHITE);
-        Rook blackRookKingSide = getRookAt(getRookKingSidePosition(Color.BLACK), Color.BLACK);
-        Rook blackRookQueenSide = getRookAt(getRookQueenSidePosition(Color.BLACK), Color.BLACK);
-
-        // Проверяем, является ли ход рокировкой
-        boolean isCastling = (piece instanceof King && Math.abs(from.getCol() - to.getCol()) == 2);
-
-        // Проверяем, является ли ход взятием на проходе
-        boolean isEnPassant = (piece instanceof Pawn && to.equals(game.getEnPassantTarget()));
-
-        // Проверяем, является ли ход превращением пешки
-        int lastRow = this.BOARD_SIZE - 1;
-        boolean isPromotion = (piece instanceof Pawn &&
-                ((piece.getColor() == Color.WHITE && to.getRow() == lastRow) ||
-                        (piece.getColor() == Color.BLACK && to.getRow() == 0)));
-
-        Piece castlingRook = null;
-        if (isCastling) {
-            // Определяем, какая ладья участвует в рокировке
-            int rookCol = (to.getCol() > from.getCol()) ?
-                    (game.getGameType() == GameType.CLASSIC ? 7 : 8) :  // Короткая
-                    (game.getGameType() == GameType.CLASSIC ? 0 : 1);    // Длинная
-            castlingRook = getPieceAt(new Position(from.getRow(), rookCol));
-        }
-
-        return new MoveSnapshot(
-                piece, from, to,
-                capturedPiece, capturedPos,
-                game.getEnPassantTarget(),
-                getHasMovedState(piece),
-                (capturedPiece != null) ? getHasMovedState(capturedPiece) : false,
-                (whiteKing != null) ? whiteKing.hasMoved() : false,
-                (blackKing != null) ? blackKing.hasMoved() : false,
-                (whiteRookKingSide != null) ? whiteRookKingSide.hasMoved() : false,
-                (whiteRookQueenSide != null) ? whiteRookQueenSide.hasMoved() : false,
-                (blackRookKingSide != null) ? blackRookKingSide.hasMoved() : false,
-                (blackRookQueenSide != null) ? blackRookQueenSide.hasMoved() : false,
-                castlingRook,
-                (castlingRook != null) ? getHasMovedState(castlingRook) : false,
-                isCastling, isEnPassant, isPromotion
-        );
+    // Записать данные для отмены хода фигуры moved с from на to, взятая фигура - captured
+    // на клетке capturedIndex. Возвращает номер полухода в стеке отмены
+    private int pushUndo(int from, int to, Piece moved, int capturedIndex, Piece captured) {
+        if (undoSize == undoMoves.length) {
+            growUndoStack();
+        }
+        int ply = undoSize++;
+        int info = from | (to << 9);
+        if (getHasMovedState(moved)) {
+            info |= UNDO_MOVED_HAS_MOVED;
+        }
+        undoMoves[ply] = info;
+        undoCastlings[ply] = 0;
+        Position enPassantTarget = game.getEnPassantTarget();
+        undoStates[ply] = ((enPassantTarget != null) ? mailbox.index(enPassantTarget) : 0) | (castlingRights << 9);
+        undoKeys[ply] = zobristKey;
+        undoMovedPieces[ply] = moved;
+        undoCapturedPieces[ply] = null;
+        if (captured != null) {
+            recordCapture(ply, capturedIndex, captured);
+        }
+        return ply;
+    }
+
+    private void recordCapture(int ply, int capturedIndex, Piece captured) {
+        int info = undoMoves[ply] & ~(0x1FF << 18) & ~UNDO_CAPTURED_HAS_MOVED;
+        info |= capturedIndex << 18;
+        if (getHasMovedState(captured)) {
+            info |= UNDO_CAPTURED_HAS_MOVED;
+        }
+        undoMoves[ply] = info;
+        undoCapturedPieces[ply] = captured;
+    }
+
+    private void recordCastlingRook(int ply, int rookFrom, int rookTo, Piece rook) {
+        undoCastlings[ply] = rookFrom | (rookTo << 9) | (getHasMovedState(rook) ? UNDO_ROOK_HAS_MOVED : 0);
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMoves.length * 2;
+        undoMoves = Arrays.copyOf(undoMoves, capacity);
+        undoCastlings = Arrays.copyOf(undoCastlings, capacity);
+        undoStates = Arrays.copyOf(undoStates, capacity);
+        undoKeys = Arrays.copyOf(undoKeys, capacity);
+        undoMovedPieces = Arrays.copyOf(undoMovedPieces, capacity);
+        undoCapturedPieces = Arrays.copyOf(undoCapturedPieces, capacity);
     }
 
     // Вспомогательные методы для получения позиций ладей
     private Position getRookKingSidePosition(Color color) {
         int row = (color == Color.WHITE) ? 0 : (BOARD_SIZE - 1);
         int col = (game.getGameType() == GameType.CLASSIC) ? (BOARD_SIZE - 1) : (BOARD_SIZE - 2);
-        return new Position(row, col);
+        return Position.of(row, col);
     }
 
     private Position getRookQueenSidePosition(Color color) {
         int row = (color == Color.WHITE) ? 0 : (BOARD_SIZE - 1);
         int col = (game.getGameType() == GameType.CLASSIC) ? 0 : 1;
-        return new Position(row, col);
+        return Position.of(row, col);
     }
 
     private boolean getHasMovedState(Piece piece) {
@@ -710,75 +1203,6 @@ public class Board {
         return false;
     }
 
-    private void restoreFromSnapshot(MoveSnapshot snapshot) {
-        // 1. Восстанавливаем перемещенную фигуру
-        setPieceAtInternal(snapshot.movedPiece, snapshot.from);
-
-        // 2. Восстанавливаем взятую фигуру (если была)
-        if (snapshot.capturedPiece != null && snapshot.capturedPos != null) {
-            setPieceAtInternal(snapshot.capturedPiece, snapshot.capturedPos);
-
-            // Удаляем из списка съеденных фигур
-            if (snapshot.capturedPiece.getColor() == Color.WHITE) {
-                game.getCapturedWhitePieces().remove(snapshot.capturedPiece);
-            } else {
-                game.getCapturedBlackPieces().remove(snapshot.capturedPiece);
-            }
-        } else {
-            // Очищаем целевую клетку
-            removePieceAtInternal(snapshot.to);
-        }
-
-        // 3. Восстанавливаем состояние hasMoved
-        restoreHasMovedState(snapshot.movedPiece, snapshot.movedPieceHasMovedBefore);
-        if (snapshot.capturedPiece != null) {
-            restoreHasMovedState(snapshot.capturedPiece, snapshot.capturedPieceHasMovedBefore);
-        }
-
-        // 4. Восстанавливаем состояние рокировок
-        restoreCastlingStates(snapshot);
-
-        // 5. Восстанавливаем enPassantTarget
-        if (snapshot.enPassantTargetBefore != null) {
-            game.setEnPassantTarget(snapshot.enPassantTargetBefore);
-        } else {
-            game.clearEnPassantTarget();
-        }
-
-        // 6. Особый случай: рокировка
-        if (snapshot.isCastling && snapshot.castlingRook != null) {
-            GameType gameType = game.getGameType();
-            Position rookFrom;
-            Position rookTo;
-
-            if (gameType == GameType.CLASSIC) {
-                if (snapshot.to.getCol() == 6) { // Короткая рокировка (O-O)
-                    rookFrom = new Position(snapshot.from.getRow(), 7);
-                    rookTo = new Position(snapshot.from.getRow(), 5);
-                } else { // Длинная рокировка (O-O-O)
-                    rookFrom = new Position(snapshot.from.getRow(), 0);
-                    rookTo = new Position(snapshot.from.getRow(), 3);
-                }
-            } else { // OMEGA
-                if (snapshot.to.getCol() == 7) { // Короткая рокировка (O-O) f1→h1
-                    rookFrom = new Position(snapshot.from.getRow(), 8); // i1
-                    rookTo = new Position(snapshot.from.getRow(), 6);   // g1
-                } else { // Длинная рокировка (O-O-O) f1→d1
-                    rookFrom = new Position(snapshot.from.getRow(), 1); // b1
-                    rookTo = new Position(snapshot.from.getRow(), 4);   // e1
-                }
-            }
-
-            // Возвращаем ладью на место
-            setPieceAtInternal(snapshot.castlingRook, rookFrom);
-            removePieceAtInternal(rookTo);
-            restoreHasMovedState(snapshot.castlingRook, snapshot.castlingRookHasMovedBefore);
-        }
-
-        // 7. Пересчитываем карты атак
-        calculateAttackMaps();
-    }
-
     private void restoreHasMovedState(Piece piece, boolean hasMovedBefore) {
         if (piece instanceof King) {
             King king = (King) piece;
@@ -804,48 +1228,6 @@ public class Board {
         }
     }
 
-    private void restoreCastlingStates(MoveSnapshot snapshot) {
-        // Восстанавливаем состояние королей
-        Position whiteKingPos = findKingPosition(Color.WHITE);
-        Position blackKingPos = findKingPosition(Color.BLACK);
-        King whiteKing = (whiteKingPos != null) ? (King) getPieceAt(whiteKingPos) : null;
-        King blackKing = (blackKingPos != null) ? (King) getPieceAt(blackKingPos) : null;
-
-        if (whiteKing != null) {
-            if (snapshot.whiteKingHasMovedBefore) {
-                whiteKing.markAsMoved();
-            } else {
-                whiteKing.resetMoved();
-            }
-        }
-
-        if (blackKing != null) {
-            if (snapshot.blackKingHasMovedBefore) {
-                blackKing.markAsMoved();
-            } else {
-                blackKing.resetMoved();
-            }
-        }
-
-        // Восстанавливаем состояние ладей - ИСПРАВЛЕНО: динамические координаты
-        restoreRookState(getRookKingSidePosition(Color.WHITE), snapshot.whiteRookKingSideHasMovedBefore, Color.WHITE);
-        restoreRookState(getRookQueenSidePosition(Color.WHITE), snapshot.whiteRookQueenSideHasMovedBefore, Color.WHITE);
-        restoreRookState(getRookKingSidePosition(Color.BLACK), snapshot.blackRookKingSideHasMovedBefore, Color.BLACK);
-        restoreRookState(getRookQueenSidePosition(Color.BLACK), snapshot.blackRookQueenSideHasMovedBefore, Color.BLACK);
-    }
-
-    private void restoreRookState(Position pos, boolean hasMovedBefore, Color color) {
-        Piece piece = getPieceAt(pos);
-        if (piece instanceof Rook && piece.getColor() == color) {
-            Rook rook = (Rook) piece;
-            if (hasMovedBefore) {
-                rook.markAsMoved();
-            } else {
-                rook.resetMoved();
-            }
-        }
-    }
-
     private Rook getRookAt(Position pos, Color color) {
         Piece piece = getPieceAt(pos);
         if (piece instanceof Rook && piece.getColor() == color) {
@@ -855,15 +1237,68 @@ public class Board {
     }
 
     public boolean undoLastMove() {
-        if (moveHistory.isEmpty()) {
+        if (undoSize == 0) {
             return false;
         }
 
-        MoveSnapshot snapshot = moveHistory.pop();
-        restoreFromSnapshot(snapshot);
+        int ply = --undoSize;
+        int info = undoMoves[ply];
+        if ((info & UNDO_NULL_MOVE) != 0) {
+            restoreUndoState(ply);
+            return true;
+        }
+        int from = info & 0x1FF;
+        int to = (info >>> 9) & 0x1FF;
+        int capturedIndex = (info >>> 18) & 0x1FF;
+        Piece moved = undoMovedPieces[ply];
+        Piece captured = undoCapturedPieces[ply];
+        undoMovedPieces[ply] = null;
+        undoCapturedPieces[ply] = null;
+
+        // 1. Возвращаем ходившую фигуру (на клетке to может стоять фигура превращения)
+        removePieceAtInternal(to);
+        setPieceAtInternal(moved, from);
+        restoreHasMovedState(moved, (info & UNDO_MOVED_HAS_MOVED) != 0);
+
+        // 2. Возвращаем взятую фигуру (при взятии на проходе - не на клетку to)
+        if (captured != null) {
+            setPieceAtInternal(captured, capturedIndex);
+            restoreHasMovedState(captured, (info & UNDO_CAPTURED_HAS_MOVED) != 0);
+            // Отмена идёт в обратном порядке, поэтому взятая фигура - последняя в своём списке
+            List<Piece> capturedPieces = (captured.getColor() == Color.WHITE)
+                    ? game.getCapturedWhitePieces() : game.getCapturedBlackPieces();
+            capturedPieces.remove(capturedPieces.size() - 1);
+        }
+
+        // 3. Рокировка: возвращаем ладью
+        int castling = undoCastlings[ply];
+        if (castling != 0) {
+            int rookFrom = castling & 0x1FF;
+            int rookTo = (castling >>> 9) & 0x1FF;
+            Piece rook = squares[rookTo];
+            removePieceAtInternal(rookTo);
+            setPieceAtInternal(rook, rookFrom);
+            restoreHasMovedState(rook, (castling & UNDO_ROOK_HAS_MOVED) != 0);
+        }
+
+        // 4. Взятие на проходе, права на рокировку и ключ - как были до хода
+        restoreUndoState(ply);
         return true;
     }
 
+    private void restoreUndoState(int ply) {
+        int state = undoStates[ply];
+        int enPassantIndex = state & 0x1FF;
+        if (enPassantIndex != 0) {
+            game.setEnPassantTarget(mailbox.toPosition(enPassantIndex));
+        } else {
+            game.clearEnPassantTarget();
+        }
+        castlingRights = state >>> 9;
+        zobristKey = undoKeys[ply];
+        sideToMove = sideToMove.opposite();
+    }
+
     /**
      * Проверяет безопасность рокировки
      */
@@ -882,7 +1317,7 @@ public class Board {
         int endCol = Math.max(castling.kingFrom.getCol(), castling.kingTo.getCol());
 
         for (int col = startCol; col <= endCol; col++) {
-            Position pos = new Position(row, col);
+            Position pos = Position.of(row, col);
             if (isSquareAttackedBy(pos, opponentColor)) {
                 return false;
             }
@@ -3,6 +3,8 @@ package main;
 import main.pieces.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class CastlingInfo {
@@ -30,10 +32,10 @@ public class CastlingInfo {
     // Белые, короткая рокировка (O-O)
     public static CastlingInfo classicWhiteShort() {
         return new CastlingInfo(
-                new Position(0, 4), // e1
-                new Position(0, 6), // g1
-                new Position(0, 7), // h1
-                new Position(0, 5), // f1
+                Position.of(0, 4), // e1
+                Position.of(0, 6), // g1
+                Position.of(0, 7), // h1
+                Position.of(0, 5), // f1
                 Color.WHITE,
                 true
         );
@@ -42,10 +44,10 @@ public class CastlingInfo {
     // Белые, длинная рокировка (O-O-O)
     public static CastlingInfo classicWhiteLong() {
         return new CastlingInfo(
-                new Position(0, 4), // e1
-                new Position(0, 2), // c1
-                new Position(0, 0), // a1
-                new Position(0, 3), // d1
+                Position.of(0, 4), // e1
+                Position.of(0, 2), // c1
+                Position.of(0, 0), // a1
+                Position.of(0, 3), // d1
                 Color.WHITE,
                 false
         );
@@ -54,10 +56,10 @@ public class CastlingInfo {
     // Чёрные, короткая рокировка (O-O)
     public static CastlingInfo classicBlackShort() {
         return new CastlingInfo(
-                new Position(7, 4), // e8
-                new Position(7, 6), // g8
-                new Position(7, 7), // h8
-                new Position(7, 5), // f8
+                Position.of(7, 4), // e8
+                Position.of(7, 6), // g8
+                Position.of(7, 7), // h8
+                Position.of(7, 5), // f8
                 Color.BLACK,
                 true
         );
@@ -66,10 +68,10 @@ public class CastlingInfo {
     // Чёрные, длинная рокировка (O-O-O)
     public static CastlingInfo classicBlackLong() {
         return new CastlingInfo(
-                new Position(7, 4), // e8
-                new Position(7, 2), // c8
-                new Position(7, 0), // a8
-                new Position(7, 3), // d8
+                Position.of(7, 4), // e8
+                Position.of(7, 2), // c8
+                Position.of(7, 0), // a8
+                Position.of(7, 3), // d8
                 Color.BLACK,
                 false
         );
@@ -80,10 +82,10 @@ public class CastlingInfo {
     // Omega: Белые, короткая рокировка (O-O)
     public static CastlingInfo omegaWhiteShort() {
         return new CastlingInfo(
-                new Position(0, 5),  // f1 (король в Omega Chess)
-                new Position(0, 7),  // h1 (король после рокировки)
-                new Position(0, 8),  // i1 (ладья)
-                new Position(0, 6),  // g1 (ладья после рокировки)
+                Position.of(0, 5),  // f1 (король в Omega Chess)
+                Position.of(0, 7),  // h1 (король после рокировки)
+                Position.of(0, 8),  // i1 (ладья)
+                Position.of(0, 6),  // g1 (ладья после рокировки)
                 Color.WHITE,
                 true
         );
@@ -92,10 +94,10 @@ public class CastlingInfo {
     // Omega: Белые, длинная рокировка (O-O-O)
     public static CastlingInfo omegaWhiteLong() {
         return new CastlingInfo(
-                new Position(0, 5),  // f1 (король в Omega Chess)
-                new Position(0, 3),  // d1 (король после рокировки)
-                new Position(0, 1),  // b1 (ладья)
-                new Position(0, 4),  // e1 (ладья после рокировки)
+                Position.of(0, 5),  // f1 (король в Omega Chess)
+                Position.of(0, 3),  // d1 (король после рокировки)
+                Position.of(0, 1),  // b1 (ладья)
+                Position.of(0, 4),  // e1 (ладья после рокировки)
                 Color.WHITE,
                 false
         );
@@ -104,10 +106,10 @@ public class CastlingInfo {
     // Omega: Чёрные, короткая рокировка (O-O)
     public static CastlingInfo omegaBlackShort() {
         return new CastlingInfo(
-                new Position(9, 5),  // f10 (король в Omega Chess)
-                new Position(9, 7),  // h10 (король после рокировки)
-                new Position(9, 8),  // i10 (ладья)
-                new Position(9, 6),  // g10 (ладья после рокировки)
+                Position.of(9, 5),  // f10 (король в Omega Chess)
+                Position.of(9, 7),  // h10 (король после рокировки)
+                Position.of(9, 8),  // i10 (ладья)
+                Position.of(9, 6),  // g10 (ладья после рокировки)
                 Color.BLACK,
                 true
         );
@@ -116,10 +118,10 @@ public class CastlingInfo {
     // Omega: Чёрные, длинная рокировка (O-O-O)
     public static CastlingInfo omegaBlackLong() {
         return new CastlingInfo(
-                new Position(9, 5),  // f10 (король в Omega Chess)
-                new Position(9, 3),  // c10 (король после рокировки)
-                new Position(9, 1),  // b10 (ладья)
-                new Position(9, 4),  // d10 (ладья после рокировки)
+                Position.of(9, 5),  // f10 (король в Omega Chess)
+                Position.of(9, 3),  // c10 (король после рокировки)
+                Position.of(9, 1),  // b10 (ладья)
+                Position.of(9, 4),  // d10 (ладья после рокировки)
                 Color.BLACK,
                 false
         );
@@ -135,7 +137,7 @@ public class CastlingInfo {
         int row = kingFrom.getRow(); // та же строка
 
         for (int col = startCol; col <= endCol; col++) {
-            squares.add(new Position(row, col));
+            squares.add(Position.of(row, col));
         }
         return squares;
     }
@@ -152,7 +154,7 @@ public class CastlingInfo {
 
         // Добавляем ВСЕ клетки, включая начальную и конечную
         for (int col = startCol; col != endCol + step; col += step) {
-            path.add(new Position(row, col));
+            path.add(Position.of(row, col));
         }
 
         return path;
@@ -178,29 +180,23 @@ public class CastlingInfo {
         return all;
     }
 
-    // Получить все рокировки для типа игры и цвета
+    // Рокировки неизменяемы, поэтому для генератора ходов они создаются один раз
+    private static final List<CastlingInfo> CLASSIC_WHITE =
+            Collections.unmodifiableList(Arrays.asList(classicWhiteShort(), classicWhiteLong()));
+    private static final List<CastlingInfo> CLASSIC_BLACK =
+            Collections.unmodifiableList(Arrays.asList(classicBlackShort(), classicBlackLong()));
+    private static final List<CastlingInfo> OMEGA_WHITE =
+            Collections.unmodifiableList(Arrays.asList(omegaWhiteShort(), omegaWhiteLong()));
+    private static final List<CastlingInfo> OMEGA_BLACK =
+            Collections.unmodifiableList(Arrays.asList(omegaBlackShort(), omegaBlackLong()));
+
+    // Получить все рокировки для типа игры и цвета (общий неизменяемый список)
     public static List<CastlingInfo> getAllForGameType(GameType gameType, Color color) {
-        List<CastlingInfo> all = new ArrayList<>();
-
         if (gameType == GameType.CLASSIC) {
-            if (color == Color.WHITE) {
-                all.add(classicWhiteShort());
-                all.add(classicWhiteLong());
-            } else {
-                all.add(classicBlackShort());
-                all.add(classicBlackLong());
-            }
+            return (color == Color.WHITE) ? CLASSIC_WHITE : CLASSIC_BLACK;
         } else { // OMEGA
-            if (color == Color.WHITE) {
-                all.add(omegaWhiteShort());
-                all.add(omegaWhiteLong());
-            } else {
-                all.add(omegaBlackShort());
-                all.add(omegaBlackLong());
-            }
+            return (color == Color.WHITE) ? OMEGA_WHITE : OMEGA_BLACK;
         }
-
-        return all;
     }
 
     // Получить все возможные рокировки для типа игры
@@ -232,8 +228,11 @@ public class CastlingInfo {
         }
 
         // 3. Проверка, что клетки между королём и ладьёй пусты
-        for (Position square : getSquaresBetweenKingAndRook()) {
-            if (board.getPieceAt(square) != null) {
+        int row = kingFrom.getRow();
+        int startCol = Math.min(kingFrom.getCol(), rookFrom.getCol()) + 1;
+        int endCol = Math.max(kingFrom.getCol(), rookFrom.getCol()) - 1;
+        for (int col = startCol; col <= endCol; col++) {
+            if (board.getPieceAt(Position.of(row, col)) != null) {
                 return false;
             }
         }
@@ -245,8 +244,9 @@ public class CastlingInfo {
 
         // 5. Проверка, что клетки, через которые проходит король, не атакованы
         Color opponentColor = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
-        for (Position square : getKingPathSquares()) {
-            if (board.isSquareAttackedBy(square, opponentColor)) {
+        int step = (kingTo.getCol() > kingFrom.getCol()) ? 1 : -1;
+        for (int col = kingFrom.getCol(); col != kingTo.getCol() + step; col += step) {
+            if (board.isSquareAttackedBy(Position.of(row, col), opponentColor)) {
                 return false;
             }
         }
@@ -80,7 +80,7 @@ public class ConsoleChess {
             System.out.print((row + 1) + "  ");
 
             for (int col = 0; col < 8; col++) {
-                Piece piece = game.getBoard().getPieceAt(new Position(row, col));
+                Piece piece = game.getBoard().getPieceAt(Position.of(row, col));
                 char symbol = getPieceSymbol(piece);
                 System.out.print(symbol + " ");
             }
@@ -123,7 +123,7 @@ public class ConsoleChess {
         int col = file - 'a';
         int row = rank - '1';
 
-        return new Position(row, col);
+        return Position.of(row, col);
     }
 
     public Class<? extends Piece> askForPromotionChoice() {
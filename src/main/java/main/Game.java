@@ -16,6 +16,8 @@ public class Game {
     private List<Piece> capturedWhitePieces = new ArrayList<>();
     private List<Piece> capturedBlackPieces = new ArrayList<>();
     private Position enPassantTarget; // Позиция пешки, которую можно взять на проходе
+    // Последний опубликованный снимок позиции - для чтения из других потоков
+    private volatile PositionSnapshot snapshot;
 
     public Game(GameType gameType) {
         this.gameType = gameType;
@@ -28,6 +30,32 @@ public class Game {
         if (gameType == GameType.OMEGA) {
             this.board.debugPrintOmegaSetup();
         }
+        publishSnapshot();
+    }
+
+    // Партия с позиции из снимка (своя доска, без истории ходов) - например, для анализа
+    // в отдельном потоке, не трогая партию GUI
+    private Game(PositionSnapshot snapshot) {
+        this.gameType = snapshot.getGameType();
+        this.board = new Board(this);
+        this.currentPlayer = snapshot.getSideToMove();
+        this.enPassantTarget = snapshot.getEnPassantTarget();
+        this.moveCount = snapshot.getMoveCount();
+        this.board.setupFromSnapshot(snapshot);
+        publishSnapshot();
+    }
+
+    public static Game fromSnapshot(PositionSnapshot snapshot) {
+        return new Game(snapshot);
+    }
+
+    // Снимок текущей позиции; безопасно читать из любого потока
+    public PositionSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void publishSnapshot() {
+        snapshot = PositionSnapshot.capture(this);
     }
 
     private Piece createPiece(Class<? extends Piece> pieceType, Color color, Position pos) {
@@ -67,10 +95,11 @@ public class Game {
 
             // Меняем игрока
             currentPlayer = currentPlayer.opposite();
+            publishSnapshot();
 
             // Только шах можно проверить (для логирования)
             if (board.isKingInCheck(currentPlayer)) {
-                System.out.println("ШАХ королю " + currentPlayer);
+                Log.info("ШАХ королю " + currentPlayer);
             }
 
             return true;
@@ -82,7 +111,7 @@ public class Game {
 
     public boolean undoLastMove() {
         if (isGameOver) {
-            System.out.println("Игра завершена, нельзя отменить ход");
+            Log.info("Игра завершена, нельзя отменить ход");
             return false;
         }
 
@@ -91,10 +120,11 @@ public class Game {
             moveCount = Math.max(0, moveCount - 1); // Уменьшаем счетчик ходов
             // Сменить игрока обратно
             currentPlayer = currentPlayer.opposite();
-            System.out.println("Ход отменен. Теперь ходит: " + currentPlayer);
+            publishSnapshot();
+            Log.info(() -> "Ход отменен. Теперь ходит: " + currentPlayer);
             return true;
         } else {
-            System.out.println("Нельзя отменить ход (история пуста)");
+            Log.info("Нельзя отменить ход (история пуста)");
             return false;
         }
     }
@@ -124,8 +154,9 @@ public class Game {
 
         // Заменяем пешку на новую фигуру
         board.replacePiece(pos, newPiece);
+        publishSnapshot();
 
-        System.out.println("Пешка превращена в " + newPiece.getClass().getSimpleName());
+        Log.debug(() -> "Пешка превращена в " + newPiece.getClass().getSimpleName());
     }
 
     public boolean isPromotionPosition(Position pos, Color color) {
@@ -163,16 +194,16 @@ public class Game {
 
     public void surrender() {
         isGameOver = true;
-        System.out.println((currentPlayer == Color.WHITE ? "Белые" : "Чёрные") + " сдались!");
+        Log.info((currentPlayer == Color.WHITE ? "Белые" : "Чёрные") + " сдались!");
     }
 
     public void capturePiece(Piece piece) {
         if (piece.getColor() == Color.WHITE) {
             capturedWhitePieces.add(piece);
-            System.out.println("Снята белая фигура: " + piece.getClass().getSimpleName());
+            Log.debug(() -> "Снята белая фигура: " + piece.getClass().getSimpleName());
         } else {
             capturedBlackPieces.add(piece);
-            System.out.println("Снята чёрная фигура: " + piece.getClass().getSimpleName());
+            Log.debug(() -> "Снята чёрная фигура: " + piece.getClass().getSimpleName());
         }
     }
 
@@ -202,12 +233,12 @@ public class Game {
 
     public void declareMate(Color winner) {
         this.isGameOver = true;
-        System.out.println("МАТ! Победили " + (winner == Color.WHITE ? "белые" : "черные"));
+        Log.info("МАТ! Победили " + (winner == Color.WHITE ? "белые" : "черные"));
     }
 
     public void declareStalemate() {
         this.isGameOver = true;
-        System.out.println("ПАТ! Ничья");
+        Log.info("ПАТ! Ничья");
     }
 
     // Метод для получения текущего состояния игры (для сохранения)
@@ -223,25 +254,8 @@ public class Game {
 
     // Метод для проверки, находится ли игра в дебюте, миттельшпиле или эндшпиле
     public String getGamePhase() {
-        int totalPieces = 0;
-        int queens = 0;
-        int rooks = 0;
-        int bishops = 0;
-        int knights = 0;
-        int boardSize = gameType.getBoardSize(); // Используем gameType
-
-        for (int row = 0; row < boardSize; row++) {
-            for (int col = 0; col < boardSize; col++) {
-                Piece piece = board.getPieceAt(new Position(row, col));
-                if (piece != null) {
-                    totalPieces++;
-                    if (piece instanceof Queen) queens++;
-                    if (piece instanceof Rook) rooks++;
-                    if (piece instanceof Bishop) bishops++;
-                    if (piece instanceof Knight) knights++;
-                }
-            }
-        }
+        // Считаются только фигуры основной доски (угловые клетки, как и раньше, не учитываются)
+        int totalPieces = board.getMainBoardPieceCount();
 
         // Простая логика определения фазы игры
         if (totalPieces > 20) {
@@ -269,7 +283,7 @@ public class Game {
         int firstRow = (color == Color.WHITE) ? 0 : (boardSize - 1);
         int rookCol = kingSide ? (boardSize - 1) : 0;
 
-        Position rookPos = new Position(firstRow, rookCol);
+        Position rookPos = Position.of(firstRow, rookCol);
         Piece rook = board.getPieceAt(rookPos);
 
         if (!(rook instanceof Rook) || ((Rook) rook).hasMoved()) {
@@ -280,48 +294,32 @@ public class Game {
     }
 
     private King findKing(Color color) {
-        int boardSize = gameType.getBoardSize(); // Используем gameType
-        for (int row = 0; row < boardSize; row++) {
-            for (int col = 0; col < boardSize; col++) {
-                Piece piece = board.getPieceAt(new Position(row, col));
-                if (piece instanceof King && piece.getColor() == color) {
-                    return (King) piece;
-                }
-            }
-        }
-        return null;
+        int kingIndex = board.getKingIndex(color);
+        return (kingIndex >= 0) ? (King) board.getPieceAt(kingIndex) : null;
     }
 
-    // Метод для получения оценки позиции (очень упрощенная)
+    // Материальный перевес белых в пешках по классической шкале (пешка 1, конь и слон 3,
+    // ладья 5, ферзь 9, король 100; Champion и Wizard не считаются). Число фигур каждого
+    // типа Board ведёт инкрементально, поэтому доску обходить не нужно
     public int evaluatePosition() {
         int score = 0;
-        int boardSize = gameType.getBoardSize(); // Используем gameType
-
-        for (int row = 0; row < boardSize; row++) {
-            for (int col = 0; col < boardSize; col++) {
-                Piece piece = board.getPieceAt(new Position(row, col));
-                if (piece != null) {
-                    int pieceValue = getPieceValue(piece);
-                    if (piece.getColor() == Color.WHITE) {
-                        score += pieceValue;
-                    } else {
-                        score -= pieceValue;
-                    }
-                }
-            }
+        for (PieceType type : PieceType.values()) {
+            int count = board.getPieceCount(Color.WHITE, type) - board.getPieceCount(Color.BLACK, type);
+            score += count * getPieceValue(type);
         }
-
         return score;
     }
 
-    private int getPieceValue(Piece piece) {
-        if (piece instanceof Pawn) return 1;
-        if (piece instanceof Knight) return 3;
-        if (piece instanceof Bishop) return 3;
-        if (piece instanceof Rook) return 5;
-        if (piece instanceof Queen) return 9;
-        if (piece instanceof King) return 100;
-        return 0;
+    private static int getPieceValue(PieceType type) {
+        switch (type) {
+            case PAWN: return 1;
+            case KNIGHT: return 3;
+            case BISHOP: return 3;
+            case ROOK: return 5;
+            case QUEEN: return 9;
+            case KING: return 100;
+            default: return 0;
+        }
     }
 
     // Метод для отображения статистики игры
@@ -14,6 +14,6 @@ public final class GameState {
     }
 
     public static String getStatus() {
-        return "GameState не реализован. Используется MoveSnapshot для отмены ходов.";
+        return "GameState не реализован. Для отмены ходов используется стек отмены Board.";
     }
 }
\ No newline at end of file
@@ -0,0 +1,284 @@
+package main;
+
+import main.pieces.Piece;
+
+// Генератор легальных ходов без пробных ходов для каждой фигуры. Шахующие фигуры и связки
+// находятся один раз от клетки короля, после чего каждый псевдолегальный ход проверяется за O(1):
+//  - двойной шах: ходит только король;
+//  - шах: ход должен взять шахующую фигуру или встать на луч между ней и королём;
+//  - связанная фигура ходит только по лучу связки;
+//  - король не встаёт на атакованную клетку (проверка по битбордам без самого короля,
+//    чтобы учесть рентген дальнобойных фигур вдоль линии шаха).
+// Взятие на проходе проверяется отдельно: с доски уходят сразу две пешки (в том числе с одной
+// горизонтали с королём), поэтому линии короля просматриваются заново без обеих.
+// Результат совпадает с Board.isMoveLegal; рокировка, как и там, проверяется по клетке короля.
+public class LegalMoveGenerator {
+    private static final int MAX_PINS = 8;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final Board board;
+    private final Mailbox mailbox;
+
+    // Состояние позиции, найденное analyze()
+    private int kingIndex;
+    private int checkerCount;
+    private int checkerIndex;
+    private int checkerDirection; // 0 для прыгающих фигур: закрыться от них нельзя
+    private int checkerDistance;
+    private int pinCount;
+    private final int[] pinnedIndex = new int[MAX_PINS];
+    private final int[] pinDirection = new int[MAX_PINS];
+    private final int[] pinDistance = new int[MAX_PINS];
+    private final MoveList buffer = new MoveList();
+
+    public LegalMoveGenerator(Board board) {
+        this.board = board;
+        this.mailbox = board.getMailbox();
+    }
+
+    // Все легальные ходы стороны color дописываются в moves
+    public void generate(Color color, MoveList moves) {
+        int start = moves.size();
+        int king = board.getKingIndex(color);
+        if (king < 0) {
+            // Без короля шаха не бывает - все псевдолегальные ходы легальны
+            MoveCalculator.generateMoves(board, color, moves);
+            return;
+        }
+        analyze(king, color);
+        if (checkerCount >= 2) {
+            MoveCalculator.generatePieceMoves(board, board.getPieceAt(king), king, moves);
+        } else {
+            MoveCalculator.generateMoves(board, color, moves);
+        }
+        filter(color, moves, start);
+    }
+
+    // Есть ли у стороны color хотя бы один легальный ход (мат и пат). Фигуры проверяются
+    // по одной, начиная с короля, и проверка заканчивается на первом легальном ходе
+    public boolean hasAnyLegalMove(Color color) {
+        int king = board.getKingIndex(color);
+        if (king < 0) {
+            buffer.clear();
+            MoveCalculator.generateMoves(board, color, buffer);
+            return !buffer.isEmpty();
+        }
+        analyze(king, color);
+        if (hasLegalMove(king, color)) {
+            return true;
+        }
+        if (checkerCount >= 2) {
+            return false;
+        }
+        PieceLists pieceLists = board.getPieceLists();
+        for (PieceType type : PIECE_TYPES) {
+            if (type == PieceType.KING) {
+                continue;
+            }
+            for (int n = 0; n < pieceLists.count(color, type); n++) {
+                if (hasLegalMove(pieceLists.square(color, type, n), color)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Есть ли легальный ход у фигуры с клетки from. Ходам не короля снимать короля
+    // с битбордов не нужно: isLegal проверяет по битбордам только клетки короля
+    private boolean hasLegalMove(int from, Color color) {
+        buffer.clear();
+        MoveCalculator.generatePieceMoves(board, board.getPieceAt(from), from, buffer);
+        if (from == kingIndex) {
+            filter(color, buffer, 0);
+            return !buffer.isEmpty();
+        }
+        Color opponent = color.opposite();
+        for (int i = 0; i < buffer.size(); i++) {
+            if (isLegal(buffer.get(i), opponent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Легальные ходы одной фигуры с клетки from
+    public void generateForPiece(int from, MoveList moves) {
+        Piece piece = board.getPieceAt(from);
+        if (piece == null) {
+            return;
+        }
+        int start = moves.size();
+        MoveCalculator.generatePieceMoves(board, piece, from, moves);
+        int king = board.getKingIndex(piece.getColor());
+        if (king >= 0) {
+            analyze(king, piece.getColor());
+            filter(piece.getColor(), moves, start);
+        }
+    }
+
+    // Оставить в moves (начиная с start) только легальные ходы
+    private void filter(Color color, MoveList moves, int start) {
+        Color opponent = color.opposite();
+        Piece king = board.getPieceAt(kingIndex);
+
+        // Король снимается с битбордов на время проверки своих ходов
+        board.placeForTrial(kingIndex, null);
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(move, opponent)) {
+                moves.set(kept++, move);
+            }
+        }
+        board.placeForTrial(kingIndex, king);
+        moves.truncate(kept);
+    }
+
+    private boolean isLegal(int move, Color opponent) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (from == kingIndex) {
+            return !board.isSquareAttackedOnBitboards(to, opponent);
+        }
+        if (checkerCount >= 2) {
+            return false;
+        }
+        if (Move.isEnPassant(move)) {
+            return isEnPassantLegal(from, to, opponent);
+        }
+        for (int i = 0; i < pinCount; i++) {
+            if (pinnedIndex[i] == from && !isOnRay(to, pinDirection[i], pinDistance[i])) {
+                return false;
+            }
+        }
+        if (checkerCount == 1) {
+            return to == checkerIndex
+                    || (checkerDirection != 0 && isOnRay(to, checkerDirection, checkerDistance));
+        }
+        return true;
+    }
+
+    // Взятие на проходе: шах от прыгающей фигуры снимается, только если взята сама шахующая
+    // пешка (она только что сделала длинный ход). Дальнобойные фигуры ищутся по всем лучам
+    // от короля так, будто обе пешки уже ушли с доски, а взявшая стоит на клетке to
+    private boolean isEnPassantLegal(int from, int to, Color opponent) {
+        int captured = board.enPassantCaptureIndex(opponent.opposite());
+        if (checkerCount == 1 && checkerDirection == 0 && checkerIndex != captured) {
+            return false;
+        }
+        return !isSliderAttackAfterEnPassant(mailbox.rookOffsets, false, from, to, captured, opponent)
+                && !isSliderAttackAfterEnPassant(mailbox.bishopOffsets, true, from, to, captured, opponent);
+    }
+
+    private boolean isSliderAttackAfterEnPassant(int[] directions, boolean diagonal, int from, int to,
+                                                 int captured, Color opponent) {
+        for (int direction : directions) {
+            for (int index = kingIndex + direction; mailbox.isMain(index); index += direction) {
+                if (index == to) {
+                    break;
+                }
+                Piece piece = (index == from || index == captured) ? null : board.getPieceAt(index);
+                if (piece == null) {
+                    continue;
+                }
+                if (piece.getColor() == opponent && slidesAlong(piece.getType(), diagonal)) {
+                    return true;
+                }
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Лежит ли клетка на луче от короля в направлении direction не дальше distance шагов
+    private boolean isOnRay(int index, int direction, int distance) {
+        int diff = index - kingIndex;
+        if (diff % direction != 0) {
+            return false;
+        }
+        int steps = diff / direction;
+        return steps >= 1 && steps <= distance;
+    }
+
+    // Шахующие фигуры и связки для короля на клетке king
+    private void analyze(int king, Color color) {
+        kingIndex = king;
+        checkerCount = 0;
+        pinCount = 0;
+
+        // Дальнобойные фигуры: идём по восьми лучам от короля
+        scanRays(color, mailbox.rookOffsets, false);
+        scanRays(color, mailbox.bishopOffsets, true);
+
+        // Прыгающие фигуры (в том числе Wizard в угловых клетках - рамка мейлбокса их содержит).
+        // Все прыжки симметричны, поэтому ищем атакующего по тем же смещениям от короля
+        scanLeapers(color, mailbox.knightOffsets, PieceType.KNIGHT, PieceType.CHAMPION);
+        scanLeapers(color, mailbox.kingOffsets, PieceType.KING, PieceType.CHAMPION);
+        scanLeapers(color, mailbox.bishopOffsets, PieceType.WIZARD, PieceType.WIZARD);
+        scanLeapers(color, mailbox.wizardJumpOffsets, PieceType.WIZARD, PieceType.WIZARD);
+
+        // Пешки противника бьют по диагонали навстречу нашему направлению движения
+        int forward = mailbox.offset(color == Color.WHITE ? +1 : -1, 0);
+        checkLeaper(color, king + forward + 1, PieceType.PAWN, PieceType.PAWN);
+        checkLeaper(color, king + forward - 1, PieceType.PAWN, PieceType.PAWN);
+    }
+
+    private void scanRays(Color color, int[] directions, boolean diagonal) {
+        for (int direction : directions) {
+            int ownPiece = -1;
+            int distance = 0;
+            for (int index = kingIndex + direction; mailbox.isMain(index); index += direction) {
+                distance++;
+                Piece piece = board.getPieceAt(index);
+                if (piece == null) {
+                    continue;
+                }
+                if (piece.getColor() == color) {
+                    if (ownPiece >= 0) {
+                        break; // Две свои фигуры подряд - ни шаха, ни связки
+                    }
+                    ownPiece = index;
+                    continue;
+                }
+                if (slidesAlong(piece.getType(), diagonal)) {
+                    if (ownPiece < 0) {
+                        addChecker(index, direction, distance);
+                    } else if (pinCount < MAX_PINS) {
+                        pinnedIndex[pinCount] = ownPiece;
+                        pinDirection[pinCount] = direction;
+                        pinDistance[pinCount] = distance;
+                        pinCount++;
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    private static boolean slidesAlong(PieceType type, boolean diagonal) {
+        return type == PieceType.QUEEN || type == (diagonal ? PieceType.BISHOP : PieceType.ROOK);
+    }
+
+    private void scanLeapers(Color color, int[] offsets, PieceType first, PieceType second) {
+        for (int offset : offsets) {
+            checkLeaper(color, kingIndex + offset, first, second);
+        }
+    }
+
+    private void checkLeaper(Color color, int index, PieceType first, PieceType second) {
+        Piece piece = board.getPieceAt(index);
+        if (piece != null && piece.getColor() != color
+                && (piece.getType() == first || piece.getType() == second)) {
+            addChecker(index, 0, 0);
+        }
+    }
+
+    private void addChecker(int index, int direction, int distance) {
+        checkerCount++;
+        checkerIndex = index;
+        checkerDirection = direction;
+        checkerDistance = distance;
+    }
+}
@@ -0,0 +1,98 @@
+package main;
+
+import java.util.function.Supplier;
+
+// Простой фасад логирования с уровнями. Выключенный уровень стоит одной проверки флага:
+// сообщение передаётся как Supplier и строится только если уровень включён.
+// Уровень задаётся свойством -Domegachess.log=DEBUG|INFO|WARN|ERROR|OFF (по умолчанию INFO)
+// или Log.setLevel. DEBUG и INFO идут в System.out, WARN и ERROR - в System.err
+public final class Log {
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static volatile Level level = parseLevel(System.getProperty("omegachess.log"));
+    private static volatile boolean debugEnabled = level.compareTo(Level.DEBUG) <= 0;
+    private static volatile boolean infoEnabled = level.compareTo(Level.INFO) <= 0;
+
+    private Log() {
+    }
+
+    private static Level parseLevel(String value) {
+        if (value == null) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+        debugEnabled = newLevel.compareTo(Level.DEBUG) <= 0;
+        infoEnabled = newLevel.compareTo(Level.INFO) <= 0;
+    }
+
+    public static boolean isDebugEnabled() {
+        return debugEnabled;
+    }
+
+    public static boolean isInfoEnabled() {
+        return infoEnabled;
+    }
+
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel != Level.OFF && messageLevel.compareTo(level) >= 0;
+    }
+
+    public static void debug(String message) {
+        if (debugEnabled) {
+            System.out.println(message);
+        }
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (debugEnabled) {
+            System.out.println(message.get());
+        }
+    }
+
+    public static void info(String message) {
+        if (infoEnabled) {
+            System.out.println(message);
+        }
+    }
+
+    public static void info(Supplier<String> message) {
+        if (infoEnabled) {
+            System.out.println(message.get());
+        }
+    }
+
+    public static void warn(String message) {
+        if (isEnabled(Level.WARN)) {
+            System.err.println(message);
+        }
+    }
+
+    public static void warn(Supplier<String> message) {
+        if (isEnabled(Level.WARN)) {
+            System.err.println(message.get());
+        }
+    }
+
+    public static void error(String message, Throwable error) {
+        if (isEnabled(Level.ERROR)) {
+            System.err.println(message);
+            if (error != null) {
+                error.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package main;
+
+// Одномерный мейлбокс с рамкой из клеток-сентинелов.
+// Доска (8×8 или 10×10) лежит в центре рамки шириной PADDING клеток с каждой стороны:
+// index = (row + PADDING) * width + (col + PADDING). Четыре угловые клетки Omega (-1,-1), (-1,10),
+// (10,-1), (10,10) попадают на настоящие индексы рамки. Рамка в 4 клетки покрывает самый длинный
+// прыжок (Wizard {1,3}) даже из угловой клетки, поэтому лучи и прыжки останавливаются
+// по одной проверке вида клетки, без проверок границ.
+public final class Mailbox {
+    public static final int PADDING = 4;
+
+    // Виды клеток
+    public static final byte OFF_BOARD = 0; // сентинел
+    public static final byte MAIN = 1;      // клетка основной доски
+    public static final byte CORNER = 2;    // угловая клетка Omega (w1..w4)
+
+    private static final int[][] KNIGHT_DELTAS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_DELTAS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] ROOK_DELTAS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DELTAS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] WIZARD_JUMP_DELTAS = {
+            {1, 3}, {1, -3}, {-1, 3}, {-1, -3},
+            {3, 1}, {3, -1}, {-3, 1}, {-3, -1}
+    };
+
+    // Раскладки создаются после таблиц смещений, которые им нужны
+    private static final Mailbox CLASSIC = new Mailbox(GameType.CLASSIC);
+    private static final Mailbox OMEGA = new Mailbox(GameType.OMEGA);
+
+    private final GameType gameType;
+    private final int boardSize;
+    private final int width;
+    private final byte[] kinds;
+    private final Position[] positions;
+    private final int[] squareNumbers;  // индекс мейлбокса -> номер клетки битборда (-1 для рамки)
+    private final int[] indexOfSquare;  // номер клетки битборда -> индекс мейлбокса
+
+    // Смещения индекса для ходов фигур
+    public final int[] knightOffsets;
+    public final int[] kingOffsets;
+    public final int[] rookOffsets;
+    public final int[] bishopOffsets;
+    public final int[] wizardJumpOffsets;
+
+    private Mailbox(GameType gameType) {
+        this.gameType = gameType;
+        this.boardSize = gameType.getBoardSize();
+        this.width = boardSize + 2 * PADDING;
+        int size = width * width;
+
+        this.kinds = new byte[size];
+        this.positions = new Position[size];
+        this.squareNumbers = new int[size];
+        int cornerCount = (gameType == GameType.OMEGA) ? 4 : 0;
+        this.indexOfSquare = new int[boardSize * boardSize + cornerCount];
+
+        for (int index = 0; index < size; index++) {
+            int row = index / width - PADDING;
+            int col = index % width - PADDING;
+            squareNumbers[index] = -1;
+
+            if (row >= 0 && row < boardSize && col >= 0 && col < boardSize) {
+                kinds[index] = MAIN;
+                positions[index] = Position.of(row, col);
+                squareNumbers[index] = row * boardSize + col;
+            } else if (gameType == GameType.OMEGA && (row == -1 || row == boardSize) && (col == -1 || col == boardSize)) {
+                kinds[index] = CORNER;
+                // w1, w2, w3, w4 - по порядку после клеток основной доски
+                int corner = (row < 0 ? 0 : 2) + (col < 0 ? 0 : 1);
+                positions[index] = Position.corner("w" + (corner + 1));
+                squareNumbers[index] = boardSize * boardSize + corner;
+            } else {
+                kinds[index] = OFF_BOARD;
+            }
+
+            if (squareNumbers[index] >= 0) {
+                indexOfSquare[squareNumbers[index]] = index;
+            }
+        }
+
+        this.knightOffsets = offsets(KNIGHT_DELTAS);
+        this.kingOffsets = offsets(KING_DELTAS);
+        this.rookOffsets = offsets(ROOK_DELTAS);
+        this.bishopOffsets = offsets(BISHOP_DELTAS);
+        this.wizardJumpOffsets = offsets(WIZARD_JUMP_DELTAS);
+    }
+
+    public static Mailbox forGameType(GameType gameType) {
+        return (gameType == GameType.CLASSIC) ? CLASSIC : OMEGA;
+    }
+
+    private int[] offsets(int[][] deltas) {
+        int[] result = new int[deltas.length];
+        for (int i = 0; i < deltas.length; i++) {
+            result[i] = offset(deltas[i][0], deltas[i][1]);
+        }
+        return result;
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    public int size() {
+        return kinds.length;
+    }
+
+    // Число клеток в нумерации битбордов (64 для CLASSIC, 104 для OMEGA)
+    public int squareCount() {
+        return indexOfSquare.length;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // Смещение индекса при шаге на (deltaRow, deltaCol)
+    public int offset(int deltaRow, int deltaCol) {
+        return deltaRow * width + deltaCol;
+    }
+
+    // Индекс клетки по координатам. Координаты должны лежать в пределах рамки
+    public int index(int row, int col) {
+        return (row + PADDING) * width + (col + PADDING);
+    }
+
+    // Индекс клетки для позиции или -1, если такой клетки нет в этом варианте
+    public int index(Position position) {
+        int row = position.getRow();
+        int col = position.getCol();
+        if (row < -1 || row > boardSize || col < -1 || col > boardSize) {
+            return -1;
+        }
+        int index = index(row, col);
+        byte expected = position.isCornerCell() ? CORNER : MAIN;
+        return (kinds[index] == expected) ? index : -1;
+    }
+
+    public Position toPosition(int index) {
+        return positions[index];
+    }
+
+    public byte kind(int index) {
+        return kinds[index];
+    }
+
+    public boolean isMain(int index) {
+        return kinds[index] == MAIN;
+    }
+
+    public boolean isCorner(int index) {
+        return kinds[index] == CORNER;
+    }
+
+    // Номер клетки в нумерации битбордов (Bitboard для CLASSIC, WideBitboard для OMEGA)
+    public int toSquare(int index) {
+        return squareNumbers[index];
+    }
+
+    public int fromSquare(int square) {
+        return indexOfSquare[square];
+    }
+
+    public int row(int index) {
+        return index / width - PADDING;
+    }
+
+    public int col(int index) {
+        return index % width - PADDING;
+    }
+}
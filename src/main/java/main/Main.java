@@ -2,6 +2,12 @@ package main;
 
 public class Main {
     public static void main(String[] args) {
+        // Движок по протоколу UCI без GUI: stdout занят протоколом, приветствие не печатаем
+        if (args.length > 0 && args[0].equals("uci")) {
+            main.uci.UciProtocol.main(args);
+            return;
+        }
+
         System.out.println("=== Omega Chess ===");
         System.out.println("Запуск GUI версии...");
 
@@ -0,0 +1,96 @@
+package main;
+
+// Ход, упакованный в один int. Клетки - индексы мейлбокса доски, на которой ход сгенерирован:
+//   биты  0..8   from       - откуда
+//   биты  9..17  to         - куда
+//   биты 18..20  moved      - тип ходящей фигуры (PieceType.ordinal)
+//   биты 21..24  captured   - тип взятой фигуры + 1, 0 - без взятия
+//   биты 25..27  promotion  - тип фигуры превращения (PieceType.ordinal), 0 - без превращения
+//   биты 28..30  флаги      - рокировка, взятие на проходе, ход пешки больше чем на одну клетку
+// Пешка не бывает фигурой превращения, поэтому её ordinal (0) и означает "нет превращения".
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int FLAG_CASTLING = 1;
+    public static final int FLAG_EN_PASSANT = 2;
+    public static final int FLAG_PAWN_PUSH = 4; // продвижение пешки на 2 (CLASSIC) или 2-3 (OMEGA) клетки
+
+    private static final int SQUARE_MASK = 0x1FF;
+    private static final int TO_SHIFT = 9;
+    private static final int MOVED_SHIFT = 18;
+    private static final int CAPTURED_SHIFT = 21;
+    private static final int PROMOTION_SHIFT = 25;
+    private static final int FLAGS_SHIFT = 28;
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, PieceType moved, PieceType captured, int flags) {
+        return from
+                | (to << TO_SHIFT)
+                | (moved.ordinal() << MOVED_SHIFT)
+                | ((captured == null ? 0 : captured.ordinal() + 1) << CAPTURED_SHIFT)
+                | (flags << FLAGS_SHIFT);
+    }
+
+    public static int withPromotion(int move, PieceType promotion) {
+        return (move & ~(7 << PROMOTION_SHIFT)) | (promotion.ordinal() << PROMOTION_SHIFT);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static PieceType moved(int move) {
+        return PIECE_TYPES[(move >>> MOVED_SHIFT) & 7];
+    }
+
+    // Тип взятой фигуры или null для тихого хода
+    public static PieceType captured(int move) {
+        int captured = (move >>> CAPTURED_SHIFT) & 15;
+        return (captured == 0) ? null : PIECE_TYPES[captured - 1];
+    }
+
+    // Тип фигуры превращения или null
+    public static PieceType promotion(int move) {
+        int promotion = (move >>> PROMOTION_SHIFT) & 7;
+        return (promotion == 0) ? null : PIECE_TYPES[promotion];
+    }
+
+    public static int flags(int move) {
+        return (move >>> FLAGS_SHIFT) & 7;
+    }
+
+    public static boolean isCapture(int move) {
+        return ((move >>> CAPTURED_SHIFT) & 15) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return ((move >>> PROMOTION_SHIFT) & 7) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (flags(move) & FLAG_CASTLING) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (flags(move) & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isPawnPush(int move) {
+        return (flags(move) & FLAG_PAWN_PUSH) != 0;
+    }
+
+    // Для отладки: "e2-e4", "e7-e8=QUEEN"
+    public static String toString(int move, Mailbox mailbox) {
+        String text = mailbox.toPosition(from(move)) + "-" + mailbox.toPosition(to(move));
+        PieceType promotion = promotion(move);
+        return (promotion != null) ? text + "=" + promotion : text;
+    }
+}
@@ -5,207 +5,298 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MoveCalculator {
-    private static boolean processMove(Piece piece, Board board,
-                                       List<Position> moves, int row, int col) {
-        Position pos = new Position(row, col);
-        GameType gameType = board.getGame().getGameType();
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    // Фигуры превращения пешки (как в Game.getPromotionOptions)
+    private static final PieceType[] CLASSIC_PROMOTIONS = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT
+    };
+    private static final PieceType[] OMEGA_PROMOTIONS = {
+            PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT,
+            PieceType.CHAMPION, PieceType.WIZARD
+    };
+
+    // === ГЕНЕРАЦИЯ УПАКОВАННЫХ ХОДОВ (Move) ===
+
+    // Все псевдолегальные ходы стороны color за один проход по спискам фигур доски.
+    // Ходы дописываются в конец moves, новых объектов не создаётся
+    public static void generateMoves(Board board, Color color, MoveList moves) {
+        PieceLists pieceLists = board.getPieceLists();
+        for (PieceType type : PIECE_TYPES) {
+            for (int n = 0; n < pieceLists.count(color, type); n++) {
+                int from = pieceLists.square(color, type, n);
+                generatePieceMoves(board, board.getPieceAt(from), from, moves);
+            }
+        }
+    }
 
-        if (!pos.isValid(gameType)) {
+    // Легальные ходы стороны color (генератор со связками и шахами, см. LegalMoveGenerator)
+    public static void generateLegalMoves(Board board, Color color, MoveList moves) {
+        board.generateLegalMoves(color, moves);
+    }
+
+    // Псевдолегальные ходы одной фигуры, стоящей на клетке from мейлбокса
+    public static void generatePieceMoves(Board board, Piece piece, int from, MoveList moves) {
+        switch (piece.getType()) {
+            case PAWN:
+                addPawnMoves(board, (Pawn) piece, from, moves);
+                break;
+            case KNIGHT:
+                addKnightMoves(board, piece, from, moves);
+                break;
+            case BISHOP:
+                addBishopMoves(board, piece, from, moves);
+                break;
+            case ROOK:
+                addRookMoves(board, piece, from, moves);
+                break;
+            case QUEEN:
+                addRookMoves(board, piece, from, moves);
+                addBishopMoves(board, piece, from, moves);
+                break;
+            case KING:
+                addKingMoves(board, piece, from, moves);
+                addCastlings(board, (King) piece, from, moves);
+                break;
+            case CHAMPION:
+                addChampionMoves(board, piece, from, moves);
+                break;
+            case WIZARD:
+                addWizardMoves(board, piece, from, moves);
+                break;
+        }
+    }
+
+    private static int encode(Board board, Piece piece, int from, int to, int flags) {
+        Piece target = board.getPieceAt(to);
+        return Move.encode(from, to, piece.getType(), (target != null) ? target.getType() : null, flags);
+    }
+
+    // Цели хода из набора клеток классического битборда; клетки своих фигур исключаются
+    private static void addTargets(Board board, Piece piece, int from, long attacks, MoveList moves) {
+        Mailbox mailbox = board.getMailbox();
+        long targets = attacks & ~board.getBitboards().getOccupancy(piece.getColor());
+        while (targets != 0) {
+            int square = Bitboard.lowestSquare(targets);
+            targets &= targets - 1;
+            moves.add(encode(board, piece, from, mailbox.fromSquare(square), 0));
+        }
+    }
+
+    // Клетка to мейлбокса как цель хода. Рамка-сентинел и угловые клетки останавливают
+    // луч одной проверкой вида клетки. Возвращает true, если луч может продолжаться дальше
+    private static boolean processMove(Board board, Piece piece, int from, int to, MoveList moves) {
+        if (!board.getMailbox().isMain(to)) {
             return false;
         }
-        Piece target = board.getPieceAt(pos);
+        Piece target = board.getPieceAt(to);
 
         if (target == null) {
-            moves.add(pos);
+            moves.add(Move.encode(from, to, piece.getType(), null, 0));
             return true;
         } else if (piece.isOpponent(target)) {
-            moves.add(pos);
+            moves.add(Move.encode(from, to, piece.getType(), target.getType(), 0));
             return false;
         } else {
             return false;
         }
     }
 
-    public static List<Position> getRookMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-        GameType gameType = board.getGame().getGameType();
-        int boardSize = gameType.getBoardSize();
-
-        // Вверх (+1, 0)
-        for (int step = 1; rowNow + step < boardSize; step++) {
-            if (!processMove(piece, board, moves, rowNow + step, colNow)) break;
-        }
-        // Вниз (-1, 0)
-        for (int step = 1; rowNow - step >= 0; step++) {
-            if (!processMove(piece, board, moves, rowNow - step, colNow)) break;
-        }
-        // Вправо (0, +1)
-        for (int step = 1; colNow + step < boardSize; step++) {
-            if (!processMove(piece, board, moves, rowNow, colNow + step)) break;
-        }
-        // Влево (0, -1)
-        for (int step = 1; colNow - step >= 0; step++) {
-            if (!processMove(piece, board, moves, rowNow, colNow - step)) break;
+    // Лучи дальнобойной фигуры по мейлбоксу: шагаем до сентинела или первой занятой клетки
+    private static void slide(Board board, Piece piece, int from, int[] directions, MoveList moves) {
+        for (int direction : directions) {
+            int to = from + direction;
+            while (processMove(board, piece, from, to, moves)) {
+                to += direction;
+            }
         }
-
-        return moves;
     }
 
-    public static List<Position> getBishopMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-        GameType gameType = board.getGame().getGameType();
-        int boardSize = gameType.getBoardSize();
-
-        // Вверх-вправо (+1, +1)
-        for (int step = 1; rowNow + step < boardSize && colNow + step < boardSize; step++) {
-            if (!processMove(piece, board, moves, rowNow + step, colNow + step)) break;
-        }
-        // Вверх-влево (+1, -1)
-        for (int step = 1; rowNow + step < boardSize && colNow - step >= 0; step++) {
-            if (!processMove(piece, board, moves, rowNow + step, colNow - step)) break;
+    // Прыжки по набору смещений мейлбокса
+    private static void leap(Board board, Piece piece, int from, int[] offsets, MoveList moves) {
+        for (int offset : offsets) {
+            processMove(board, piece, from, from + offset, moves);
         }
-        // Вниз-вправо (-1, +1)
-        for (int step = 1; rowNow - step >= 0 && colNow + step < boardSize; step++) {
-            if (!processMove(piece, board, moves, rowNow - step, colNow + step)) break;
-        }
-        // Вниз-влево (-1, -1)
-        for (int step = 1; rowNow - step >= 0 && colNow - step >= 0; step++) {
-            if (!processMove(piece, board, moves, rowNow - step, colNow - step)) break;
+    }
+
+    private static void addRookMoves(Board board, Piece piece, int from, MoveList moves) {
+        BitboardPosition bitboards = board.getBitboards();
+        if (bitboards != null) {
+            int square = board.getMailbox().toSquare(from);
+            addTargets(board, piece, from, Bitboard.rookAttacks(square, bitboards.getAllPieces()), moves);
+        } else {
+            slide(board, piece, from, board.getMailbox().rookOffsets, moves);
         }
+    }
 
-        return moves;
+    private static void addBishopMoves(Board board, Piece piece, int from, MoveList moves) {
+        BitboardPosition bitboards = board.getBitboards();
+        if (bitboards != null) {
+            int square = board.getMailbox().toSquare(from);
+            addTargets(board, piece, from, Bitboard.bishopAttacks(square, bitboards.getAllPieces()), moves);
+        } else {
+            slide(board, piece, from, board.getMailbox().bishopOffsets, moves);
+        }
     }
 
-    public static List<Position> getKingMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-
-        for (int[] offset : getKingOffsets()) {
-            int deltaRow = offset[0];
-            int deltaCol = offset[1];
-            processMove(piece, board, moves, rowNow + deltaRow, colNow + deltaCol);
+    private static void addKnightMoves(Board board, Piece piece, int from, MoveList moves) {
+        if (board.getBitboards() != null) {
+            addTargets(board, piece, from, Bitboard.knightAttacks(board.getMailbox().toSquare(from)), moves);
+        } else {
+            leap(board, piece, from, board.getMailbox().knightOffsets, moves);
         }
-        return moves;
     }
 
-    private static int[][] getKingOffsets() {
-        return new int[][]{
-                {-1, -1}, {-1, 0}, {-1, 1},
-                {0, -1}, {0, 1},
-                {1, -1}, {1, 0}, {1, 1}
-        };
+    private static void addKingMoves(Board board, Piece piece, int from, MoveList moves) {
+        if (board.getBitboards() != null) {
+            addTargets(board, piece, from, Bitboard.kingAttacks(board.getMailbox().toSquare(from)), moves);
+        } else {
+            leap(board, piece, from, board.getMailbox().kingOffsets, moves);
+        }
     }
 
-    public static List<Position> getKnightMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-
-        for (int[] offset : getKnightOffsets()) {
-            int deltaRow = offset[0];
-            int deltaCol = offset[1];
-            processMove(piece, board, moves, rowNow + deltaRow, colNow + deltaCol);
+    // Рокировки: ход короля на kingTo с флагом FLAG_CASTLING
+    private static void addCastlings(Board board, King king, int from, MoveList moves) {
+        List<CastlingInfo> castlings = CastlingInfo.getAllForGameType(board.getGame().getGameType(), king.getColor());
+        for (int i = 0; i < castlings.size(); i++) {
+            CastlingInfo castling = castlings.get(i);
+            if (castling.isValid(board)) {
+                moves.add(encode(board, king, from, board.getMailbox().index(castling.kingTo), Move.FLAG_CASTLING));
+            }
         }
-        return moves;
     }
 
-    private static int[][] getKnightOffsets() {
-        return new int[][]{
-                {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
-                {1, -2}, {1, 2}, {2, -1}, {2, 1}
-        };
+    // Champion и Wizard прыгают по смещениям мейлбокса: угловые клетки не являются целями хода,
+    // поэтому результат совпадает с getChampionTargets/getWizardTargets, но без битбордов-буферов
+    private static void addChampionMoves(Board board, Piece piece, int from, MoveList moves) {
+        // 1. Ходы как у коня, 2. Ходы как у короля (на 1 клетку в любом направлении)
+        leap(board, piece, from, board.getMailbox().knightOffsets, moves);
+        leap(board, piece, from, board.getMailbox().kingOffsets, moves);
     }
 
-    public static List<Position> getPawnMoves(Pawn pawn, Board board) {
-        List<Position> moves = new ArrayList<>();
+    private static void addWizardMoves(Board board, Piece piece, int from, MoveList moves) {
+        // 1. Ход на одну клетку по диагонали, 2. Прыжки на {1,3} или {3,1} в любом направлении.
+        // Оба вида ходов сохраняют цвет клетки, так что Wizard остаётся на своём цвете
+        leap(board, piece, from, board.getMailbox().bishopOffsets, moves);
+        leap(board, piece, from, board.getMailbox().wizardJumpOffsets, moves);
+    }
+
+    private static void addPawnMoves(Board board, Pawn pawn, int from, MoveList moves) {
         GameType gameType = board.getGame().getGameType();
-        int pawnInitialMaxSteps = gameType.getPawnInitialMaxSteps();
-        int boardSize = gameType.getBoardSize();
+        Mailbox mailbox = board.getMailbox();
 
         // ДВИЖЕНИЕ ВПЕРЁД ПЕШКИ БЕЗ ВЗЯТИЙ
-        int offset_forward = pawn.getColor() == Color.WHITE ? +1 : -1;
+        int forward = mailbox.offset(pawn.getColor() == Color.WHITE ? +1 : -1, 0);
         int X = 1; // Число клеток, на которое потенциально может сдвинуться вперёд пешка (pawn)
         if (!pawn.hasMoved()) {
-            X = pawnInitialMaxSteps;
+            X = gameType.getPawnInitialMaxSteps();
         }
+        int to = from;
         for (int i = 1; i <= X; i++) {
-            Position forward_X = new Position(pawn.getPosition().getRow() + (i * offset_forward), pawn.getPosition().getCol());
-            if (!forward_X.isValid(gameType)) {
-                break; // Некорректная позиция
-            }
-            Piece target = board.getPieceAt(forward_X);
-
-            if (target == null) {
-                moves.add(forward_X);
-            } else {
-                break;
+            to += forward;
+            if (!mailbox.isMain(to) || board.getPieceAt(to) != null) {
+                break; // Край доски или занятая клетка
             }
+            addPawnMove(board, pawn, from, to, (i > 1) ? Move.FLAG_PAWN_PUSH : 0, moves);
         }
 
         // ДВИЖЕНИЕ ПЕШКИ ВПЕРЁД ПО ДИАГОНАЛИ ПРИ ВЗЯТИИ ФИГУРЫ ОППОНЕНТА
-        // Вперёд-вправо
-        Position forwardRight = new Position(
-                pawn.getPosition().getRow() + offset_forward,
-                pawn.getPosition().getCol() + 1
-        );
-        if (forwardRight.isValid(gameType)) {
-            Piece targetForwardRight = board.getPieceAt(forwardRight);
-            if (pawn.isOpponent(targetForwardRight)) {
-                moves.add(forwardRight);
-            }
+        int forwardRight = from + forward + 1;
+        if (mailbox.isMain(forwardRight) && pawn.isOpponent(board.getPieceAt(forwardRight))) {
+            addPawnMove(board, pawn, from, forwardRight, 0, moves);
         }
-        // Вперёд-влево
-        Position forwardLeft = new Position(
-                pawn.getPosition().getRow() + offset_forward,
-                pawn.getPosition().getCol() - 1
-        );
-        if (forwardLeft.isValid(gameType)) {
-            Piece targetForwardLeft = board.getPieceAt(forwardLeft);
-            if (pawn.isOpponent(targetForwardLeft)) {
-                moves.add(forwardLeft);
-            }
+        int forwardLeft = from + forward - 1;
+        if (mailbox.isMain(forwardLeft) && pawn.isOpponent(board.getPieceAt(forwardLeft))) {
+            addPawnMove(board, pawn, from, forwardLeft, 0, moves);
         }
 
-        // ВЗЯТИЕ НА ПРОХОДЕ (только для классических шахмат 8x8)
-        if (gameType == GameType.CLASSIC) {
-            if ((pawn.getColor() == Color.WHITE && pawn.getPosition().getRow() == 4)
-                    || (pawn.getColor() == Color.BLACK && pawn.getPosition().getRow() == 3)) {
+        // ВЗЯТИЕ НА ПРОХОДЕ: на любую клетку, проскоченную пешкой соперника при длинном ходе
+        // (одна в классике, две в Omega). Цель - ближайшая к пешке клетка, дальше по ходу
+        // взятия лежат остальные; сама пешка стоит сразу за целью
+        Position enPassantTarget = board.getGame().getEnPassantTarget();
+        if (enPassantTarget != null && Math.abs(mailbox.col(from) - enPassantTarget.getCol()) == 1
+                && pawn.isOpponent(board.getPieceAt(mailbox.index(enPassantTarget) - forward))) {
+            int target = mailbox.index(enPassantTarget);
+            int skipped = gameType.getPawnInitialMaxSteps() - 1;
+            for (int i = 0; i < skipped; i++) {
+                int landing = target + i * forward;
+                if (mailbox.row(landing) == mailbox.row(from + forward)) {
+                    moves.add(Move.encode(from, landing, PieceType.PAWN, PieceType.PAWN, Move.FLAG_EN_PASSANT));
+                }
+            }
+        }
+    }
 
-                Position enPassantTarget = board.getGame().getEnPassantTarget();
-                if (enPassantTarget != null) {
-                    // Проверка, что цель на проходе на соседней вертикали
-                    int pawnCol = pawn.getPosition().getCol();
-                    int targetCol = enPassantTarget.getCol();
+    // Ход пешки; на последней горизонтали - по ходу на каждую фигуру превращения
+    private static void addPawnMove(Board board, Pawn pawn, int from, int to, int flags, MoveList moves) {
+        Mailbox mailbox = board.getMailbox();
+        int move = encode(board, pawn, from, to, flags);
+        int promotionRow = (pawn.getColor() == Color.WHITE) ? mailbox.getGameType().getBoardSize() - 1 : 0;
+        if (mailbox.row(to) != promotionRow) {
+            moves.add(move);
+            return;
+        }
+        PieceType[] promotions = (mailbox.getGameType() == GameType.OMEGA) ? OMEGA_PROMOTIONS : CLASSIC_PROMOTIONS;
+        for (PieceType promotion : promotions) {
+            moves.add(Move.withPromotion(move, promotion));
+        }
+    }
 
-                    if (Math.abs(pawnCol - targetCol) == 1) {  // Соседняя вертикаль
-                        moves.add(enPassantTarget);
-                    }
-                }
+    // === СПИСКИ ПОЗИЦИЙ (для GUI, консоли и проверок по Position) ===
+
+    // Клетки назначения упакованных ходов. Превращения в разные фигуры ведут на одну клетку -
+    // берём её один раз (по превращению в ферзя)
+    static List<Position> toTargets(MoveList moves, Mailbox mailbox) {
+        List<Position> targets = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            PieceType promotion = Move.promotion(move);
+            if (promotion == null || promotion == PieceType.QUEEN) {
+                targets.add(mailbox.toPosition(Move.to(move)));
             }
         }
+        return targets;
+    }
 
-        return moves;
+    private static int indexOf(Piece piece, Board board) {
+        return board.getMailbox().index(piece.getPosition());
     }
 
-    public static List<Position> getAllKingMoves(King king, Board board) {
-        List<Position> allMoves = new ArrayList<>();
+    public static List<Position> getRookMoves(Piece piece, Board board) {
+        MoveList moves = new MoveList(32);
+        addRookMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
+    }
 
-        // 1. Добавить обычные ходы
-        allMoves.addAll(getKingMoves(king, board));
+    public static List<Position> getBishopMoves(Piece piece, Board board) {
+        MoveList moves = new MoveList(32);
+        addBishopMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
+    }
 
-        // 2. Добавить рокировки (для КАЖДОГО типа игры)
-        // УБРАТЬ ограничение только для CLASSIC
-        List<CastlingInfo> possibleCastlings = getPossibleCastlings(king, board);
-        for (CastlingInfo castling : possibleCastlings) {
-            allMoves.add(castling.kingTo);
-        }
+    public static List<Position> getKingMoves(Piece piece, Board board) {
+        MoveList moves = new MoveList(16);
+        addKingMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
+    }
+
+    public static List<Position> getKnightMoves(Piece piece, Board board) {
+        MoveList moves = new MoveList(16);
+        addKnightMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
+    }
 
-        return allMoves;
+    public static List<Position> getPawnMoves(Pawn pawn, Board board) {
+        MoveList moves = new MoveList(32);
+        addPawnMoves(board, pawn, indexOf(pawn, board), moves);
+        return toTargets(moves, board.getMailbox());
+    }
+
+    // Обычные ходы короля и рокировки (для КАЖДОГО типа игры)
+    public static List<Position> getAllKingMoves(King king, Board board) {
+        MoveList moves = new MoveList(16);
+        generatePieceMoves(board, king, indexOf(king, board), moves);
+        return toTargets(moves, board.getMailbox());
     }
 
     public static List<CastlingInfo> getPossibleCastlings(King king, Board board) {
@@ -224,105 +315,33 @@ public class MoveCalculator {
         return moves;
     }
 
-    public static List<Position> getChampionMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-        GameType gameType = board.getGame().getGameType();
-
-        // 1. Ходы как у коня
-        int[][] knightOffsets = getKnightOffsets();
-        for (int[] offset : knightOffsets) {
-            int newRow = rowNow + offset[0];
-            int newCol = colNow + offset[1];
-            Position pos = new Position(newRow, newCol);
-
-            if (pos.isValid(gameType)) {
-                Piece target = board.getPieceAt(pos);
-                if (target == null || piece.isOpponent(target)) {
-                    moves.add(pos);
-                }
-            }
-        }
+    // Битбордовый аналог getChampionMoves для OMEGA: все цели хода одним набором клеток.
+    // На угловые клетки фигуры не ходят, клетки своих фигур исключаются
+    public static WideBitboard getChampionTargets(Piece piece, WideBitboardPosition bitboards, WideBitboard out) {
+        int square = WideBitboard.square(piece.getPosition());
+        return WideBitboardPosition.championAttacks(square, out)
+                .andMainBoard()
+                .andNot(bitboards.getOccupancy(piece.getColor()));
+    }
 
-        // 2. Ходы как у короля (на 1 клетку в любом направлении)
-        int[][] kingOffsets = getKingOffsets();
-        for (int[] offset : kingOffsets) {
-            int newRow = rowNow + offset[0];
-            int newCol = colNow + offset[1];
-            Position pos = new Position(newRow, newCol);
-
-            if (pos.isValid(gameType)) {
-                Piece target = board.getPieceAt(pos);
-                if (target == null || piece.isOpponent(target)) {
-                    moves.add(pos);
-                }
-            }
-        }
+    // Битбордовый аналог getWizardMoves. Прыжки {1,3}/{3,1} и диагональный шаг не меняют
+    // цвет клетки, поэтому отдельная проверка цвета не нужна
+    public static WideBitboard getWizardTargets(Piece piece, WideBitboardPosition bitboards, WideBitboard out) {
+        int square = WideBitboard.square(piece.getPosition());
+        return WideBitboardPosition.wizardAttacks(square, out)
+                .andMainBoard()
+                .andNot(bitboards.getOccupancy(piece.getColor()));
+    }
 
-        return moves;
+    public static List<Position> getChampionMoves(Piece piece, Board board) {
+        MoveList moves = new MoveList(32);
+        addChampionMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
     }
 
     public static List<Position> getWizardMoves(Piece piece, Board board) {
-        List<Position> moves = new ArrayList<>();
-        int rowNow = piece.getPosition().getRow();
-        int colNow = piece.getPosition().getCol();
-        GameType gameType = board.getGame().getGameType();
-
-        // 1. Ход на одну клетку по диагонали (как король, но только по диагонали)
-        int[][] diagonalOffsets = {
-                {-1, -1}, {-1, 1},  // влево-вниз, вправо-вниз
-                {1, -1}, {1, 1}      // влево-вверх, вправо-вверх
-        };
-
-        for (int[] offset : diagonalOffsets) {
-            int newRow = rowNow + offset[0];
-            int newCol = colNow + offset[1];
-            Position pos = new Position(newRow, newCol);
-
-            if (!pos.isValid(gameType)) {
-                continue;
-            }
-
-            Piece target = board.getPieceAt(pos);
-            if (target == null || piece.isOpponent(target)) {
-                moves.add(pos);
-            }
-        }
-
-        // 2. Прыжки на {1,3} или {3,1} в любом направлении
-        // Все возможные комбинации {1,3} и {3,1}:
-        int[][] wizardJumps = {
-                // {1,3} комбинации
-                {1, 3}, {1, -3}, {-1, 3}, {-1, -3},
-                {3, 1}, {3, -1}, {-3, 1}, {-3, -1},
-                // {3,1} комбинации (уже включены выше, но для ясности)
-        };
-
-        for (int[] jump : wizardJumps) {
-            int newRow = rowNow + jump[0];
-            int newCol = colNow + jump[1];
-            Position pos = new Position(newRow, newCol);
-
-            if (!pos.isValid(gameType)) {
-                continue;
-            }
-
-            // Проверяем, что Wizard остаётся на клетках того же цвета
-            // Wizard привязан к цвету клеток: если начал на чёрной, остаётся на чёрных
-            boolean isStartingLightSquare = Board.isLightSquare(piece.getPosition());
-            boolean isTargetLightSquare = Board.isLightSquare(pos);
-
-            if (isStartingLightSquare != isTargetLightSquare) {
-                continue; // Не может сменить цвет клетки
-            }
-
-            Piece target = board.getPieceAt(pos);
-            if (target == null || piece.isOpponent(target)) {
-                moves.add(pos);
-            }
-        }
-
-        return moves;
+        MoveList moves = new MoveList(32);
+        addWizardMoves(board, piece, indexOf(piece, board), moves);
+        return toTargets(moves, board.getMailbox());
     }
-}
\ No newline at end of file
+}
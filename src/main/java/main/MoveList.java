@@ -0,0 +1,62 @@
+package main;
+
+import java.util.Arrays;
+
+// Буфер упакованных ходов (Move) на массиве int. Создаётся один раз и переиспользуется:
+// clear() только сбрасывает размер, новых объектов при генерации не появляется
+public final class MoveList {
+    // С запасом для самых насыщенных позиций Omega
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        this.moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Отбросить ходы с номера size и дальше
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,163 @@
+package main;
+
+import main.pieces.*;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Perft: подсчёт узлов дерева легальных ходов до глубины N из начальной позиции
+// (или из любого снимка позиции - для проверки особых случаев вроде взятия на проходе).
+// Ходы делаются и отменяются через Board.movePiece/undoLastMove, превращения раскрываются
+// во все фигуры. Корневые ходы (divide) считаются параллельно в ForkJoinPool, у каждой
+// задачи своя партия - Board не потокобезопасен.
+//
+// Запуск: java -cp target/classes main.Perft [CLASSIC|OMEGA] [глубина] [потоки]
+//
+// Эталон CLASSIC: 20, 400, 8902, 197281, 4865609, 119060324
+// Omega (правила этой реализации): 38, 1444, 58066, 2332001
+public class Perft {
+    private final PositionSnapshot root;
+
+    public Perft(GameType gameType) {
+        this(new Game(gameType).getSnapshot());
+    }
+
+    public Perft(PositionSnapshot root) {
+        this.root = root;
+    }
+
+    public static void main(String[] args) {
+        GameType gameType = (args.length > 0) ? GameType.valueOf(args[0].toUpperCase()) : GameType.CLASSIC;
+        int depth = (args.length > 1) ? Integer.parseInt(args[1]) : 4;
+        int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // Сообщения ядра правил (взятия, шахи) при подсчёте не нужны
+        if (System.getProperty("omegachess.log") == null) {
+            Log.setLevel(Log.Level.WARN);
+        }
+        new Perft(gameType).divide(depth, threads, System.out);
+    }
+
+    // Число узлов на глубине depth с разбивкой по корневым ходам
+    public long divide(int depth, int threads, PrintStream out) {
+        long start = System.nanoTime();
+
+        Board board = Game.fromSnapshot(root).getBoard();
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(root.getSideToMove(), rootMoves);
+
+        List<RootTask> tasks = new ArrayList<>(rootMoves.size());
+        for (int i = 0; i < rootMoves.size(); i++) {
+            tasks.add(new RootTask(rootMoves.get(i), depth));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        long total = 0;
+        try {
+            for (RootTask task : tasks) {
+                pool.execute(task);
+            }
+            for (RootTask task : tasks) {
+                long nodes = task.join();
+                total += nodes;
+                out.println(Move.toString(task.move, board.getMailbox()) + ": " + nodes);
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        out.println();
+        out.println(root.getGameType() + " perft " + depth + " = " + total);
+        out.println("Время: " + (elapsed / 1_000_000) + " мс, потоков: " + threads
+                + ", узлов в секунду: " + (total * 1_000_000_000L / elapsed));
+        return total;
+    }
+
+    // Подсчёт для одного корневого хода на собственной партии
+    private class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final int move;
+        private final int depth;
+
+        RootTask(int move, int depth) {
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= 1) {
+                return 1L;
+            }
+            Board board = Game.fromSnapshot(root).getBoard();
+            MoveList[] buffers = new MoveList[depth];
+            for (int i = 0; i < depth; i++) {
+                buffers[i] = new MoveList();
+            }
+            makeMove(board, move);
+            long nodes = perft(board, root.getSideToMove().opposite(), depth - 1, buffers);
+            board.undoLastMove();
+            return nodes;
+        }
+    }
+
+    // Узлы на глубине depth для стороны side; buffers[d] - буфер ходов уровня d
+    public static long perft(Board board, Color side, int depth, MoveList[] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = buffers[depth];
+        moves.clear();
+        board.generateLegalMoves(side, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            makeMove(board, moves.get(i));
+            nodes += perft(board, side.opposite(), depth - 1, buffers);
+            board.undoLastMove();
+        }
+        return nodes;
+    }
+
+    // Сделать упакованный ход через movePiece (с превращением пешки, если оно есть)
+    private static void makeMove(Board board, int move) {
+        Mailbox mailbox = board.getMailbox();
+        Position from = mailbox.toPosition(Move.from(move));
+        Position to = mailbox.toPosition(Move.to(move));
+        if (!board.movePiece(from, to)) {
+            throw new IllegalStateException("movePiece отклонил сгенерированный ход " + Move.toString(move, mailbox));
+        }
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            Color color = board.getPieceAt(to).getColor();
+            board.replacePiece(to, createPiece(promotion, color, to));
+        }
+    }
+
+    private static Piece createPiece(PieceType type, Color color, Position position) {
+        switch (type) {
+            case QUEEN:
+                return new Queen(color, position);
+            case ROOK:
+                return new Rook(color, position);
+            case BISHOP:
+                return new Bishop(color, position);
+            case KNIGHT:
+                return new Knight(color, position);
+            case CHAMPION:
+                return new Champion(color, position);
+            case WIZARD:
+                return new Wizard(color, position);
+            default:
+                throw new IllegalArgumentException("Пешка не превращается в " + type);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package main;
+
+import java.util.Arrays;
+
+// Списки фигур каждой стороны, сгруппированные по типу (индексы мейлбокса), и клетка короля.
+// Board обновляет их в setPieceAtInternal/removePieceAtInternal, поэтому обход фигур
+// не требует просмотра всех 64/104 клеток. Удаление - O(1): на место удалённой
+// записи переносится последняя запись того же списка
+public final class PieceLists {
+    private static final int TYPES = PieceType.values().length;
+
+    private final int[][] squares;   // [цвет * TYPES + тип][n] -> индекс мейлбокса
+    private final int[] counts;      // [цвет * TYPES + тип]
+    private final int[] slotOf;      // индекс мейлбокса -> номер записи в своём списке
+
+    public PieceLists(int mailboxSize, int squareCount) {
+        this.squares = new int[2 * TYPES][squareCount];
+        this.counts = new int[2 * TYPES];
+        this.slotOf = new int[mailboxSize];
+    }
+
+    private static int list(Color color, PieceType type) {
+        return color.ordinal() * TYPES + type.ordinal();
+    }
+
+    public void add(Color color, PieceType type, int index) {
+        int list = list(color, type);
+        slotOf[index] = counts[list];
+        squares[list][counts[list]++] = index;
+    }
+
+    public void remove(Color color, PieceType type, int index) {
+        int list = list(color, type);
+        int slot = slotOf[index];
+        int last = squares[list][--counts[list]];
+        squares[list][slot] = last;
+        slotOf[last] = slot;
+    }
+
+    public int count(Color color, PieceType type) {
+        return counts[list(color, type)];
+    }
+
+    // Индекс мейлбокса n-й фигуры данного типа (0 <= n < count)
+    public int square(Color color, PieceType type, int n) {
+        return squares[list(color, type)][n];
+    }
+
+    // Клетка короля или -1
+    public int kingSquare(Color color) {
+        int list = list(color, PieceType.KING);
+        return (counts[list] > 0) ? squares[list][0] : -1;
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+    }
+}
@@ -0,0 +1,172 @@
+package main;
+
+// Таблицы "фигура-клетка" для сужающейся (tapered) оценки: бонус в сантипешках за фигуру
+// на клетке отдельно для миттельшпиля (MG) и эндшпиля (EG), плюс стоимость фигур по умолчанию
+// и веса фаз партии. Суммы по этим таблицам Board ведёт инкрементально.
+// Таблицы строятся для доски 8×8 и 10×10 по одним и тем же правилам в относительных
+// координатах (центральность и продвижение от своего края), поэтому на обеих досках
+// одинаковы по смыслу. Клетки - номера битборда (Mailbox.toSquare); у Omega в таблицах
+// есть и угловые клетки w1..w4, где стоят Wizard до развития
+public final class PieceSquareTables {
+    public static final int MG = 0;
+    public static final int EG = 1;
+
+    // Стоимость фигур по умолчанию по PieceType.ordinal: {миттельшпиль, эндшпиль}
+    private static final int[][] MATERIAL = {
+            {82, 94},      // PAWN
+            {337, 281},    // KNIGHT
+            {365, 297},    // BISHOP
+            {477, 512},    // ROOK
+            {1025, 936},   // QUEEN
+            {0, 0},        // KING
+            {450, 480},    // CHAMPION
+            {340, 330}     // WIZARD
+    };
+
+    // Вклад фигур в фазу: полный набор лёгких и тяжёлых фигур - миттельшпиль, без них - эндшпиль
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0, 2, 1};
+
+    // Wizard в углу ещё не развит; других фигур в углах не бывает
+    private static final int CORNER_WIZARD_MG = -25;
+    private static final int CORNER_WIZARD_EG = -35;
+
+    private static final PieceSquareTables CLASSIC = new PieceSquareTables(GameType.CLASSIC);
+    private static final PieceSquareTables OMEGA = new PieceSquareTables(GameType.OMEGA);
+
+    private final int boardSize;
+    private final int maxPhase;
+    // [фаза][цвет][тип][клетка]
+    private final int[][][][] values;
+
+    private PieceSquareTables(GameType gameType) {
+        this.boardSize = gameType.getBoardSize();
+        Mailbox mailbox = Mailbox.forGameType(gameType);
+        int squares = mailbox.squareCount();
+        int types = PieceType.values().length;
+        this.values = new int[2][2][types][squares];
+
+        for (int square = 0; square < squares; square++) {
+            int index = mailbox.fromSquare(square);
+            if (mailbox.isCorner(index)) {
+                for (Color color : Color.values()) {
+                    values[MG][color.ordinal()][PieceType.WIZARD.ordinal()][square] = CORNER_WIZARD_MG;
+                    values[EG][color.ordinal()][PieceType.WIZARD.ordinal()][square] = CORNER_WIZARD_EG;
+                }
+                continue;
+            }
+            int row = mailbox.row(index);
+            int col = mailbox.col(index);
+            for (Color color : Color.values()) {
+                // Ряд относительно своего края: 0 - своя последняя горизонталь
+                int relativeRow = (color == Color.WHITE) ? row : boardSize - 1 - row;
+                for (PieceType type : PieceType.values()) {
+                    values[MG][color.ordinal()][type.ordinal()][square] = middlegame(type, relativeRow, col);
+                    values[EG][color.ordinal()][type.ordinal()][square] = endgame(type, relativeRow, col);
+                }
+            }
+        }
+
+        // Фаза начальной позиции: у Omega к классическому набору добавлены Champion и Wizard
+        int perSide = 2 * phaseWeight(PieceType.KNIGHT) + 2 * phaseWeight(PieceType.BISHOP)
+                + 2 * phaseWeight(PieceType.ROOK) + phaseWeight(PieceType.QUEEN);
+        if (gameType == GameType.OMEGA) {
+            perSide += 2 * phaseWeight(PieceType.CHAMPION) + 2 * phaseWeight(PieceType.WIZARD);
+        }
+        this.maxPhase = 2 * perSide;
+    }
+
+    public static PieceSquareTables forGameType(GameType gameType) {
+        return (gameType == GameType.CLASSIC) ? CLASSIC : OMEGA;
+    }
+
+    // Бонус фигуры type цвета color на клетке square в фазе MG или EG
+    public int value(int phase, Color color, PieceType type, int square) {
+        return values[phase][color.ordinal()][type.ordinal()][square];
+    }
+
+    // Стоимость фигуры по умолчанию в фазе MG или EG
+    public static int material(int phase, PieceType type) {
+        return MATERIAL[type.ordinal()][phase];
+    }
+
+    public static int phaseWeight(PieceType type) {
+        return PHASE_WEIGHTS[type.ordinal()];
+    }
+
+    // Фаза начальной позиции (полный миттельшпиль)
+    public int getMaxPhase() {
+        return maxPhase;
+    }
+
+    // 1.0 в центре доски, 0.0 в углу
+    private double centrality(int relativeRow, int col) {
+        double half = (boardSize - 1) / 2.0;
+        double rowDistance = Math.abs(relativeRow - half) / half;
+        double colDistance = Math.abs(col - half) / half;
+        return 1.0 - (rowDistance + colDistance) / 2.0;
+    }
+
+    // 0.0 на своей последней горизонтали, 1.0 на последней горизонтали противника
+    private double advancement(int relativeRow) {
+        return relativeRow / (double) (boardSize - 1);
+    }
+
+    // 1.0 на центральных вертикалях, 0.0 на крайних
+    private double centralFile(int col) {
+        double half = (boardSize - 1) / 2.0;
+        return 1.0 - Math.abs(col - half) / half;
+    }
+
+    private int middlegame(PieceType type, int relativeRow, int col) {
+        double centre = centrality(relativeRow, col);
+        switch (type) {
+            case PAWN:
+                return (int) Math.round(advancement(relativeRow) * 50 * (0.5 + centralFile(col)));
+            case KNIGHT:
+                return (int) Math.round(-50 + 70 * centre);
+            case BISHOP:
+                return (int) Math.round(-20 + 35 * centre);
+            case ROOK:
+                return (relativeRow == boardSize - 2 ? 20 : 0) + (int) Math.round(-5 + 10 * centralFile(col));
+            case QUEEN:
+                return (int) Math.round(-10 + 20 * centre);
+            case KING:
+                // В миттельшпиле король прячется на своей горизонтали ближе к краю
+                return (relativeRow == 0)
+                        ? (int) Math.round(20 - 30 * centralFile(col))
+                        : (int) Math.round(-20 - 60 * advancement(relativeRow));
+            case CHAMPION:
+                return (int) Math.round(-40 + 60 * centre);
+            case WIZARD:
+                return (int) Math.round(-20 + 35 * centre);
+            default:
+                return 0;
+        }
+    }
+
+    private int endgame(PieceType type, int relativeRow, int col) {
+        double centre = centrality(relativeRow, col);
+        switch (type) {
+            case PAWN:
+                double advancement = advancement(relativeRow);
+                return (int) Math.round(130 * advancement * advancement);
+            case KNIGHT:
+                return (int) Math.round(-50 + 70 * centre);
+            case BISHOP:
+                return (int) Math.round(-15 + 30 * centre);
+            case ROOK:
+                return (relativeRow == boardSize - 2) ? 15 : 0;
+            case QUEEN:
+                return (int) Math.round(-20 + 40 * centre);
+            case KING:
+                // В эндшпиле король - активная фигура
+                return (int) Math.round(-50 + 80 * centre);
+            case CHAMPION:
+                return (int) Math.round(-40 + 60 * centre);
+            case WIZARD:
+                return (int) Math.round(-20 + 35 * centre);
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package main;
+
+import main.pieces.Bishop;
+import main.pieces.Champion;
+import main.pieces.King;
+import main.pieces.Knight;
+import main.pieces.Pawn;
+import main.pieces.Piece;
+import main.pieces.Queen;
+import main.pieces.Rook;
+import main.pieces.Wizard;
+
+// Тип фигуры. Порядковый номер используется как индекс в битбордах и таблицах
+public enum PieceType {
+    PAWN(Pawn.class),
+    KNIGHT(Knight.class),
+    BISHOP(Bishop.class),
+    ROOK(Rook.class),
+    QUEEN(Queen.class),
+    KING(King.class),
+    CHAMPION(Champion.class),
+    WIZARD(Wizard.class);
+
+    private final Class<? extends Piece> pieceClass;
+
+    PieceType(Class<? extends Piece> pieceClass) {
+        this.pieceClass = pieceClass;
+    }
+
+    // Класс фигуры этого типа (например, для Game.promotePawn)
+    public Class<? extends Piece> pieceClass() {
+        return pieceClass;
+    }
+}
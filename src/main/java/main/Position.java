@@ -1,6 +1,25 @@
 package main;
 
 public class Position {
+    // Наибольшая доска (Omega 10×10) - в её таблицу входят и все клетки классической доски 8×8
+    private static final int MAX_BOARD_SIZE = 10;
+
+    // Заранее созданные позиции всех клеток основной доски и четырёх угловых клеток Omega.
+    // Движок берёт позиции из этих таблиц через of() и corner() вместо создания новых объектов
+    private static final Position[][] SQUARES = new Position[MAX_BOARD_SIZE][MAX_BOARD_SIZE];
+    private static final Position W1 = new Position(-1, -1, true);
+    private static final Position W2 = new Position(-1, MAX_BOARD_SIZE, true);
+    private static final Position W3 = new Position(MAX_BOARD_SIZE, -1, true);
+    private static final Position W4 = new Position(MAX_BOARD_SIZE, MAX_BOARD_SIZE, true);
+
+    static {
+        for (int row = 0; row < MAX_BOARD_SIZE; row++) {
+            for (int col = 0; col < MAX_BOARD_SIZE; col++) {
+                SQUARES[row][col] = new Position(row, col);
+            }
+        }
+    }
+
     private final int row;
     private final int col;
     private final boolean isCornerCell;
@@ -18,6 +37,25 @@ public class Position {
         this.isCornerCell = isCornerCell;
     }
 
+    // Позиция клетки основной доски. Для координат вне доски 10×10 создаётся новый объект
+    public static Position of(int row, int col) {
+        if (row >= 0 && row < MAX_BOARD_SIZE && col >= 0 && col < MAX_BOARD_SIZE) {
+            return SQUARES[row][col];
+        }
+        return new Position(row, col);
+    }
+
+    // Угловая клетка Omega по имени (w1..w4) или null для неизвестного имени
+    public static Position corner(String cornerName) {
+        switch (cornerName) {
+            case "w1": return W1;
+            case "w2": return W2;
+            case "w3": return W3;
+            case "w4": return W4;
+            default: return null;
+        }
+    }
+
     @Override
     public boolean equals(Object object) {
         if (this == object) return true;
@@ -90,13 +128,13 @@ public class Position {
 
         // Угловые клетки примыкают к краю основной доски
         if (row == -1 && col == -1) { // Белый Чемпион
-            return new Position(0, 0); // Примыкает к a1
+            return Position.of(0, 0); // Примыкает к a1
         } else if (row == -1 && col == 10) { // Белый Волшебник
-            return new Position(0, 9); // Примыкает к j1
+            return Position.of(0, 9); // Примыкает к j1
         } else if (row == 10 && col == -1) { // Черный Чемпион
-            return new Position(9, 0); // Примыкает к a10
+            return Position.of(9, 0); // Примыкает к a10
         } else if (row == 10 && col == 10) { // Черный Волшебник
-            return new Position(9, 9); // Примыкает к j10
+            return Position.of(9, 9); // Примыкает к j10
         }
         return null;
     }
@@ -112,12 +150,6 @@ public class Position {
     }
 
     public static Position createCornerPosition(String cornerName) {
-        switch(cornerName) {
-            case "w1": return new Position(-1, -1, true);
-            case "w2": return new Position(-1, 10, true);
-            case "w3": return new Position(10, -1, true);
-            case "w4": return new Position(10, 10, true);
-            default: return null;
-        }
+        return corner(cornerName);
     }
 }
\ No newline at end of file
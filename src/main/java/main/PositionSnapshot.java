@@ -0,0 +1,126 @@
+package main;
+
+// Неизменяемый компактный снимок позиции. Game публикует его через volatile-ссылку после
+// каждого успешного хода, отмены и превращения, поэтому другие потоки (GUI, анализ, метрики)
+// читают согласованную позицию без блокировок и без копирования объектов Piece.
+// Клетки - номера битборда (Mailbox.toSquare), фигура клетки - один байт:
+// 0 - пусто, иначе PieceType.ordinal() + 1, у чёрных плюс BLACK_FLAG
+public final class PositionSnapshot {
+    private static final int BLACK_FLAG = 16;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final GameType gameType;
+    private final Mailbox mailbox;
+    private final byte[] pieces;
+    private final Color sideToMove;
+    private final int castlingRights;   // маска Zobrist.*_SIDE
+    private final int enPassantSquare;  // номер клетки или -1
+    private final long zobristKey;
+    private final int moveCount;
+
+    private PositionSnapshot(GameType gameType, byte[] pieces, Color sideToMove, int castlingRights,
+                             int enPassantSquare, long zobristKey, int moveCount) {
+        this.gameType = gameType;
+        this.mailbox = Mailbox.forGameType(gameType);
+        this.pieces = pieces;
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.enPassantSquare = enPassantSquare;
+        this.zobristKey = zobristKey;
+        this.moveCount = moveCount;
+    }
+
+    // Снять текущую позицию партии (вызывается в потоке, который меняет партию)
+    static PositionSnapshot capture(Game game) {
+        Board board = game.getBoard();
+        Mailbox mailbox = board.getMailbox();
+        byte[] pieces = new byte[mailbox.squareCount()];
+        PieceLists pieceLists = board.getPieceLists();
+        for (Color color : Color.values()) {
+            for (PieceType type : PIECE_TYPES) {
+                for (int n = 0; n < pieceLists.count(color, type); n++) {
+                    int square = mailbox.toSquare(pieceLists.square(color, type, n));
+                    pieces[square] = code(color, type);
+                }
+            }
+        }
+        Position enPassantTarget = game.getEnPassantTarget();
+        int enPassantSquare = (enPassantTarget != null) ? mailbox.toSquare(mailbox.index(enPassantTarget)) : -1;
+        return new PositionSnapshot(game.getGameType(), pieces, game.getCurrentPlayer(), board.getCastlingRights(),
+                enPassantSquare, board.getZobristKey(), game.getMoveCount());
+    }
+
+    private static byte code(Color color, PieceType type) {
+        return (byte) ((type.ordinal() + 1) | (color == Color.BLACK ? BLACK_FLAG : 0));
+    }
+
+    public GameType getGameType() {
+        return gameType;
+    }
+
+    // Число клеток (64 или 104)
+    public int squareCount() {
+        return pieces.length;
+    }
+
+    public boolean isEmpty(int square) {
+        return pieces[square] == 0;
+    }
+
+    // Тип фигуры на клетке или null
+    public PieceType getPieceType(int square) {
+        int code = pieces[square];
+        return (code == 0) ? null : PIECE_TYPES[(code & (BLACK_FLAG - 1)) - 1];
+    }
+
+    // Цвет фигуры на клетке или null
+    public Color getPieceColor(int square) {
+        int code = pieces[square];
+        return (code == 0) ? null : ((code & BLACK_FLAG) != 0 ? Color.BLACK : Color.WHITE);
+    }
+
+    public PieceType getPieceType(Position position) {
+        int square = toSquare(position);
+        return (square >= 0) ? getPieceType(square) : null;
+    }
+
+    public Color getPieceColor(Position position) {
+        int square = toSquare(position);
+        return (square >= 0) ? getPieceColor(square) : null;
+    }
+
+    // Номер клетки для позиции или -1
+    public int toSquare(Position position) {
+        int index = mailbox.index(position);
+        return (index >= 0) ? mailbox.toSquare(index) : -1;
+    }
+
+    public Position toPosition(int square) {
+        return mailbox.toPosition(mailbox.fromSquare(square));
+    }
+
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public boolean hasCastlingRight(int right) {
+        return (castlingRights & right) != 0;
+    }
+
+    // Клетка взятия на проходе или null
+    public Position getEnPassantTarget() {
+        return (enPassantSquare >= 0) ? toPosition(enPassantSquare) : null;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+}
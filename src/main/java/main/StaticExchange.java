@@ -0,0 +1,169 @@
+package main;
+
+import main.pieces.Piece;
+
+import java.util.Arrays;
+
+// Статический размен (SEE): чем закончится серия взятий на одной клетке, если обе стороны
+// каждый раз бьют самой дешёвой фигурой и могут остановиться в любой момент.
+// Ходы не делаются: фигуры, уже побившие на клетке, помечаются снятыми, и лучи проходят
+// сквозь них - так открываются рентгеновские атаки дальнобойных фигур из-за спины.
+// Прыгающие фигуры (конь, король, Champion, Wizard, в том числе из угловых клеток)
+// ищутся по тем же смещениям мейлбокса, что и в LegalMoveGenerator. Связки не учитываются.
+public class StaticExchange {
+    // Стоимость фигур в размене, в сантипешках (по PieceType.ordinal)
+    private static final int[] VALUES = {100, 300, 300, 500, 900, 20000, 450, 350};
+    private static final int MAX_EXCHANGES = 64;
+
+    private final Board board;
+    private final Mailbox mailbox;
+    // Клетки, снятые в текущем размене: removed[index] == stamp
+    private final int[] removed;
+    private int stamp;
+    private final int[] gain = new int[MAX_EXCHANGES];
+
+    // Результат поиска атакующего
+    private int attackerIndex;
+    private int attackerValue;
+
+    public StaticExchange(Board board) {
+        this.board = board;
+        this.mailbox = board.getMailbox();
+        this.removed = new int[mailbox.size()];
+    }
+
+    public static int value(PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    // Итог размена для стороны, делающей ход move (упакованный Move):
+    // > 0 - выигрывает материал, 0 - равный размен, < 0 - теряет
+    public int evaluate(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece mover = board.getPieceAt(from);
+        nextStamp();
+
+        int captured = 0;
+        if (Move.isEnPassant(move)) {
+            int capturedIndex = board.enPassantCaptureIndex(mover.getColor());
+            removed[capturedIndex] = stamp;
+            captured = value(PieceType.PAWN);
+        } else if (board.getPieceAt(to) != null) {
+            captured = value(board.getPieceAt(to).getType());
+        }
+        int moverValue = value(mover.getType());
+        PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            captured += value(promotion) - value(PieceType.PAWN);
+            moverValue = value(promotion);
+        }
+        return exchange(from, to, captured, moverValue, mover.getColor());
+    }
+
+    // Выгода лучшего взятия фигуры на клетке target для стороны attackerColor
+    // (0, если бить невыгодно или нечем)
+    public int evaluateCapture(int target, Color attackerColor) {
+        Piece victim = board.getPieceAt(target);
+        if (victim == null || victim.getColor() == attackerColor) {
+            return 0;
+        }
+        nextStamp();
+        if (!findLeastValuableAttacker(target, attackerColor)) {
+            return 0;
+        }
+        return Math.max(0, exchange(attackerIndex, target, value(victim.getType()), attackerValue, attackerColor));
+    }
+
+    // Размен после первого взятия from -> to: gain[d] - выигрыш стороны, бьющей d-й,
+    // если после неё никто не бьёт. Потом от конца к началу каждая сторона выбирает
+    // лучшее из "бить" и "остановиться"
+    private int exchange(int from, int to, int captured, int moverValue, Color moverColor) {
+        int depth = 0;
+        gain[0] = captured;
+        int onSquare = moverValue;   // фигура, стоящая на клетке после очередного взятия
+        Color side = moverColor;
+        removed[from] = stamp;
+        while (depth < MAX_EXCHANGES - 1) {
+            depth++;
+            side = side.opposite();
+            gain[depth] = onSquare - gain[depth - 1];
+            if (!findLeastValuableAttacker(to, side)) {
+                break;
+            }
+            removed[attackerIndex] = stamp;
+            onSquare = attackerValue;
+        }
+        while (--depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+        }
+        return gain[0];
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(removed, 0);
+            stamp = 1;
+        }
+    }
+
+    // Самая дешёвая не снятая фигура стороны color, бьющая клетку target
+    private boolean findLeastValuableAttacker(int target, Color color) {
+        attackerIndex = -1;
+        attackerValue = Integer.MAX_VALUE;
+
+        // Пешки стороны color бьют target с клеток позади неё по своему направлению
+        int behind = mailbox.offset(color == Color.WHITE ? -1 : +1, 0);
+        checkLeaper(target + behind + 1, color, PieceType.PAWN, PieceType.PAWN);
+        checkLeaper(target + behind - 1, color, PieceType.PAWN, PieceType.PAWN);
+        if (attackerIndex >= 0) {
+            return true; // дешевле пешки никого нет
+        }
+
+        checkLeapers(target, mailbox.knightOffsets, color, PieceType.KNIGHT, PieceType.CHAMPION);
+        checkLeapers(target, mailbox.kingOffsets, color, PieceType.KING, PieceType.CHAMPION);
+        checkLeapers(target, mailbox.bishopOffsets, color, PieceType.WIZARD, PieceType.WIZARD);
+        checkLeapers(target, mailbox.wizardJumpOffsets, color, PieceType.WIZARD, PieceType.WIZARD);
+        checkRays(target, mailbox.rookOffsets, color, PieceType.ROOK);
+        checkRays(target, mailbox.bishopOffsets, color, PieceType.BISHOP);
+        return attackerIndex >= 0;
+    }
+
+    private void checkLeapers(int target, int[] offsets, Color color, PieceType first, PieceType second) {
+        for (int offset : offsets) {
+            checkLeaper(target + offset, color, first, second);
+        }
+    }
+
+    private void checkLeaper(int index, Color color, PieceType first, PieceType second) {
+        Piece piece = board.getPieceAt(index);
+        if (piece != null && removed[index] != stamp && piece.getColor() == color
+                && (piece.getType() == first || piece.getType() == second)) {
+            consider(index, piece.getType());
+        }
+    }
+
+    // Первая не снятая фигура на каждом луче; снятые фигуры прозрачны (рентген)
+    private void checkRays(int target, int[] directions, Color color, PieceType slider) {
+        for (int direction : directions) {
+            for (int index = target + direction; mailbox.isMain(index); index += direction) {
+                Piece piece = board.getPieceAt(index);
+                if (piece == null || removed[index] == stamp) {
+                    continue;
+                }
+                if (piece.getColor() == color && (piece.getType() == slider || piece.getType() == PieceType.QUEEN)) {
+                    consider(index, piece.getType());
+                }
+                break;
+            }
+        }
+    }
+
+    private void consider(int index, PieceType type) {
+        int value = value(type);
+        if (value < attackerValue) {
+            attackerValue = value;
+            attackerIndex = index;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package main;
+
+// 128-битный битборд (два long) для доски Omega: 100 клеток основной доски и 4 угловые клетки.
+// Номер клетки: square = row * 10 + col для основной доски (a1 = 0, j10 = 99),
+// угловые клетки w1..w4 - номера 100..103. Биты 104..127 не используются.
+// Операции изменяют сам объект и возвращают его, чтобы их можно было выстраивать в цепочку.
+public final class WideBitboard {
+    public static final int SIZE = 10;
+    public static final int MAIN_SQUARES = SIZE * SIZE;
+    public static final int SQUARES = MAIN_SQUARES + 4;
+
+    // Направления: смещения по строке и столбцу (тот же порядок, что и в Bitboard)
+    public static final int[][] DIRECTIONS = {
+            {1, 0}, {-1, 0}, {0, 1}, {0, -1},   // ладейные
+            {1, 1}, {1, -1}, {-1, 1}, {-1, -1}  // слоновые
+    };
+
+    // Маски основной доски (биты 0..99) и вертикалей a/j
+    private static final long MAIN_LO = -1L;
+    private static final long MAIN_HI = (1L << (MAIN_SQUARES - 64)) - 1;
+    private static final long FILE_A_LO;
+    private static final long FILE_A_HI;
+    private static final long FILE_J_LO;
+    private static final long FILE_J_HI;
+
+    static {
+        long aLo = 0, aHi = 0, jLo = 0, jHi = 0;
+        for (int row = 0; row < SIZE; row++) {
+            int a = row * SIZE;
+            int j = row * SIZE + SIZE - 1;
+            if (a < 64) aLo |= 1L << a; else aHi |= 1L << (a - 64);
+            if (j < 64) jLo |= 1L << j; else jHi |= 1L << (j - 64);
+        }
+        FILE_A_LO = aLo;
+        FILE_A_HI = aHi;
+        FILE_J_LO = jLo;
+        FILE_J_HI = jHi;
+    }
+
+    private long lo;
+    private long hi;
+
+    public WideBitboard() {
+    }
+
+    public WideBitboard(WideBitboard other) {
+        this.lo = other.lo;
+        this.hi = other.hi;
+    }
+
+    // === НОМЕРА КЛЕТОК ===
+
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    // Номер клетки для позиции (основная доска или угловая клетка), -1 для позиций вне доски Omega
+    public static int square(Position position) {
+        if (position.isCornerCell()) {
+            int index = cornerIndex(position.getRow(), position.getCol());
+            return (index >= 0) ? MAIN_SQUARES + index : -1;
+        }
+        if (!position.isValid(SIZE)) {
+            return -1;
+        }
+        return square(position.getRow(), position.getCol());
+    }
+
+    public static Position toPosition(int square) {
+        if (square >= MAIN_SQUARES) {
+            return Position.corner("w" + (square - MAIN_SQUARES + 1));
+        }
+        return Position.of(square / SIZE, square % SIZE);
+    }
+
+    public static boolean isCornerSquare(int square) {
+        return square >= MAIN_SQUARES;
+    }
+
+    // Строка и столбец клетки (для угловых клеток - их координаты -1/10)
+    public static int row(int square) {
+        if (square >= MAIN_SQUARES) {
+            return (square - MAIN_SQUARES < 2) ? -1 : SIZE;
+        }
+        return square / SIZE;
+    }
+
+    public static int col(int square) {
+        if (square >= MAIN_SQUARES) {
+            return ((square - MAIN_SQUARES) % 2 == 0) ? -1 : SIZE;
+        }
+        return square % SIZE;
+    }
+
+    // w1 (-1,-1) = 0, w2 (-1,10) = 1, w3 (10,-1) = 2, w4 (10,10) = 3
+    private static int cornerIndex(int row, int col) {
+        if (row == -1 && col == -1) return 0;
+        if (row == -1 && col == SIZE) return 1;
+        if (row == SIZE && col == -1) return 2;
+        if (row == SIZE && col == SIZE) return 3;
+        return -1;
+    }
+
+    // Номер клетки по координатам, включая угловые; -1 если такой клетки нет
+    static int squareOrCorner(int row, int col) {
+        if (row >= 0 && row < SIZE && col >= 0 && col < SIZE) {
+            return square(row, col);
+        }
+        int index = cornerIndex(row, col);
+        return (index >= 0) ? MAIN_SQUARES + index : -1;
+    }
+
+    // === ОТДЕЛЬНЫЕ БИТЫ ===
+
+    public boolean get(int square) {
+        return (square < 64)
+                ? (lo & (1L << square)) != 0
+                : (hi & (1L << (square - 64))) != 0;
+    }
+
+    public WideBitboard set(int square) {
+        if (square < 64) lo |= 1L << square;
+        else hi |= 1L << (square - 64);
+        return this;
+    }
+
+    public WideBitboard clear(int square) {
+        if (square < 64) lo &= ~(1L << square);
+        else hi &= ~(1L << (square - 64));
+        return this;
+    }
+
+    public WideBitboard clear() {
+        lo = 0L;
+        hi = 0L;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return (lo | hi) == 0;
+    }
+
+    public int popCount() {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    // Номер первой установленной клетки, начиная с from, или -1
+    public int nextSetBit(int from) {
+        if (from < 64) {
+            long word = lo & (-1L << from);
+            if (word != 0) {
+                return Long.numberOfTrailingZeros(word);
+            }
+            from = 64;
+        }
+        if (from < 128) {
+            long word = hi & (-1L << (from - 64));
+            if (word != 0) {
+                return 64 + Long.numberOfTrailingZeros(word);
+            }
+        }
+        return -1;
+    }
+
+    // === ЛОГИЧЕСКИЕ ОПЕРАЦИИ ===
+
+    public WideBitboard set(WideBitboard other) {
+        lo = other.lo;
+        hi = other.hi;
+        return this;
+    }
+
+    public WideBitboard and(WideBitboard other) {
+        lo &= other.lo;
+        hi &= other.hi;
+        return this;
+    }
+
+    public WideBitboard or(WideBitboard other) {
+        lo |= other.lo;
+        hi |= other.hi;
+        return this;
+    }
+
+    public WideBitboard andNot(WideBitboard other) {
+        lo &= ~other.lo;
+        hi &= ~other.hi;
+        return this;
+    }
+
+    public WideBitboard not() {
+        lo = ~lo;
+        hi = ~hi;
+        return this;
+    }
+
+    public boolean intersects(WideBitboard other) {
+        return ((lo & other.lo) | (hi & other.hi)) != 0;
+    }
+
+    // Оставить только клетки основной доски
+    public WideBitboard andMainBoard() {
+        lo &= MAIN_LO;
+        hi &= MAIN_HI;
+        return this;
+    }
+
+    // === СДВИГИ ===
+
+    public WideBitboard shiftLeft(int n) {
+        long newLo = shiftLeftLo(lo, n);
+        hi = shiftLeftHi(lo, hi, n);
+        lo = newLo;
+        return this;
+    }
+
+    public WideBitboard shiftRight(int n) {
+        long newLo = shiftRightLo(lo, hi, n);
+        hi = shiftRightHi(hi, n);
+        lo = newLo;
+        return this;
+    }
+
+    // Сдвиг на одну клетку в направлении DIRECTIONS[dir]. Угловые клетки не сдвигаются,
+    // перенос через край доски отсекается
+    public WideBitboard shift(int dir) {
+        long newLo = stepLo(lo, hi, dir);
+        hi = stepHi(lo, hi, dir);
+        lo = newLo;
+        return this;
+    }
+
+    // Заливка (occluded fill): генераторы плюс все клетки, достижимые из них в направлении dir
+    // по пустым клеткам empty. Луч на доске 10×10 не длиннее 9 клеток, поэтому хватает 8 шагов
+    public WideBitboard fill(int dir, WideBitboard empty) {
+        long genLo = lo & MAIN_LO;
+        long genHi = hi & MAIN_HI;
+        long floodLo = genLo;
+        long floodHi = genHi;
+        for (int i = 0; i < SIZE - 2; i++) {
+            long nextLo = stepLo(genLo, genHi, dir) & empty.lo;
+            long nextHi = stepHi(genLo, genHi, dir) & empty.hi;
+            genLo = nextLo;
+            genHi = nextHi;
+            floodLo |= genLo;
+            floodHi |= genHi;
+        }
+        lo = floodLo;
+        hi = floodHi;
+        return this;
+    }
+
+    // Атаки скользящих фигур-генераторов в направлении dir: заливка по пустым клеткам
+    // и ещё один шаг (включает первую занятую клетку)
+    public WideBitboard slide(int dir, WideBitboard empty) {
+        return fill(dir, empty).shift(dir);
+    }
+
+    private static long shiftLeftLo(long lo, int n) {
+        return (n >= 64) ? 0L : lo << n;
+    }
+
+    private static long shiftLeftHi(long lo, long hi, int n) {
+        if (n == 0) return hi;
+        if (n >= 64) return lo << (n - 64);
+        return (hi << n) | (lo >>> (64 - n));
+    }
+
+    private static long shiftRightLo(long lo, long hi, int n) {
+        if (n == 0) return lo;
+        if (n >= 64) return hi >>> (n - 64);
+        return (lo >>> n) | (hi << (64 - n));
+    }
+
+    private static long shiftRightHi(long hi, int n) {
+        return (n >= 64) ? 0L : hi >>> n;
+    }
+
+    private static long stepLo(long lo, long hi, int dir) {
+        int amount = DIRECTIONS[dir][0] * SIZE + DIRECTIONS[dir][1];
+        hi &= MAIN_HI;
+        long result = (amount > 0) ? shiftLeftLo(lo, amount) : shiftRightLo(lo, hi, -amount);
+        int dc = DIRECTIONS[dir][1];
+        if (dc > 0) result &= ~FILE_A_LO;
+        else if (dc < 0) result &= ~FILE_J_LO;
+        return result;
+    }
+
+    private static long stepHi(long lo, long hi, int dir) {
+        int amount = DIRECTIONS[dir][0] * SIZE + DIRECTIONS[dir][1];
+        hi &= MAIN_HI;
+        long result = (amount > 0) ? shiftLeftHi(lo, hi, amount) : shiftRightHi(hi, -amount);
+        int dc = DIRECTIONS[dir][1];
+        if (dc > 0) result &= ~FILE_A_HI;
+        else if (dc < 0) result &= ~FILE_J_HI;
+        return result & MAIN_HI;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (this == object) return true;
+        if (!(object instanceof WideBitboard)) return false;
+        WideBitboard other = (WideBitboard) object;
+        return lo == other.lo && hi == other.hi;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(lo) * 31 + Long.hashCode(hi);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", hi, lo);
+    }
+}
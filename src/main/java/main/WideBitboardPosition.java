@@ -0,0 +1,171 @@
+package main;
+
+// Битбордовое представление позиции Omega на 128-битных битбордах: по одному WideBitboard
+// на тип фигуры каждого цвета плюс занятость. Хранится рядом с сетками Board и обновляется вместе с ними.
+public class WideBitboardPosition {
+    private static final int[][] KNIGHT_OFFSETS = {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+    private static final int[][] KING_OFFSETS = {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+    private static final int[][] WIZARD_OFFSETS = {
+            {-1, -1}, {-1, 1}, {1, -1}, {1, 1},
+            {1, 3}, {1, -3}, {-1, 3}, {-1, -3},
+            {3, 1}, {3, -1}, {-3, 1}, {-3, -1}
+    };
+
+    // Таблицы прыжков. В таблицах есть и угловые клетки (геометрия), чтобы по клетке-цели
+    // можно было найти атакующего из угла; для ходов цели ограничиваются основной доской
+    private static final WideBitboard[] KNIGHT_ATTACKS = new WideBitboard[WideBitboard.SQUARES];
+    private static final WideBitboard[] KING_ATTACKS = new WideBitboard[WideBitboard.SQUARES];
+    private static final WideBitboard[] CHAMPION_ATTACKS = new WideBitboard[WideBitboard.SQUARES];
+    private static final WideBitboard[] WIZARD_ATTACKS = new WideBitboard[WideBitboard.SQUARES];
+    private static final WideBitboard[][] PAWN_ATTACKS = new WideBitboard[2][WideBitboard.SQUARES];
+
+    static {
+        for (int sq = 0; sq < WideBitboard.SQUARES; sq++) {
+            int row = WideBitboard.row(sq);
+            int col = WideBitboard.col(sq);
+
+            KNIGHT_ATTACKS[sq] = leaperMask(row, col, KNIGHT_OFFSETS);
+            KING_ATTACKS[sq] = leaperMask(row, col, KING_OFFSETS);
+            CHAMPION_ATTACKS[sq] = new WideBitboard(KNIGHT_ATTACKS[sq]).or(KING_ATTACKS[sq]);
+            WIZARD_ATTACKS[sq] = leaperMask(row, col, WIZARD_OFFSETS);
+            PAWN_ATTACKS[Color.WHITE.ordinal()][sq] = leaperMask(row, col, new int[][]{{1, -1}, {1, 1}}).andMainBoard();
+            PAWN_ATTACKS[Color.BLACK.ordinal()][sq] = leaperMask(row, col, new int[][]{{-1, -1}, {-1, 1}}).andMainBoard();
+        }
+    }
+
+    private static WideBitboard leaperMask(int row, int col, int[][] offsets) {
+        WideBitboard mask = new WideBitboard();
+        for (int[] offset : offsets) {
+            int target = WideBitboard.squareOrCorner(row + offset[0], col + offset[1]);
+            if (target >= 0) {
+                mask.set(target);
+            }
+        }
+        return mask;
+    }
+
+    private final WideBitboard[][] pieces = new WideBitboard[2][PieceType.values().length];
+    private final WideBitboard[] occupancy = {new WideBitboard(), new WideBitboard()};
+    private final WideBitboard allPieces = new WideBitboard();
+    private final WideBitboard empty = new WideBitboard();
+    private final WideBitboard scratch = new WideBitboard();
+
+    public WideBitboardPosition() {
+        for (WideBitboard[] byType : pieces) {
+            for (int type = 0; type < byType.length; type++) {
+                byType[type] = new WideBitboard();
+            }
+        }
+        updateEmpty();
+    }
+
+    public void addPiece(Color color, PieceType type, int square) {
+        pieces[color.ordinal()][type.ordinal()].set(square);
+        occupancy[color.ordinal()].set(square);
+        allPieces.set(square);
+        empty.clear(square);
+    }
+
+    public void removePiece(Color color, PieceType type, int square) {
+        pieces[color.ordinal()][type.ordinal()].clear(square);
+        occupancy[color.ordinal()].clear(square);
+        allPieces.clear(square);
+        empty.set(square);
+    }
+
+    // Возвращаемые битборды принадлежат позиции - их нельзя изменять
+    public WideBitboard getPieces(Color color, PieceType type) {
+        return pieces[color.ordinal()][type.ordinal()];
+    }
+
+    public WideBitboard getOccupancy(Color color) {
+        return occupancy[color.ordinal()];
+    }
+
+    public WideBitboard getAllPieces() {
+        return allPieces;
+    }
+
+    // Клетки, которые атакует фигура типа type цвета color с клетки square (включая занятые своими
+    // и угловые клетки по геометрии). Результат записывается в out
+    public WideBitboard attacksFrom(PieceType type, Color color, int square, WideBitboard out) {
+        switch (type) {
+            case PAWN: return out.set(PAWN_ATTACKS[color.ordinal()][square]);
+            case KNIGHT: return out.set(KNIGHT_ATTACKS[square]);
+            case KING: return out.set(KING_ATTACKS[square]);
+            case CHAMPION: return championAttacks(square, out);
+            case WIZARD: return wizardAttacks(square, out);
+            case ROOK: return slidingAttacks(square, 0, 4, out);
+            case BISHOP: return slidingAttacks(square, 4, 8, out);
+            case QUEEN: return slidingAttacks(square, 0, 8, out);
+            default: return out.clear();
+        }
+    }
+
+    public static WideBitboard championAttacks(int square, WideBitboard out) {
+        return out.set(CHAMPION_ATTACKS[square]);
+    }
+
+    public static WideBitboard wizardAttacks(int square, WideBitboard out) {
+        return out.set(WIZARD_ATTACKS[square]);
+    }
+
+    // Атаки ладьи/слона/ферзя по заливке в направлениях [fromDir, toDir)
+    private WideBitboard slidingAttacks(int square, int fromDir, int toDir, WideBitboard out) {
+        out.clear();
+        for (int dir = fromDir; dir < toDir; dir++) {
+            out.or(scratch.clear().set(square).slide(dir, empty));
+        }
+        return out;
+    }
+
+    // Атакована ли клетка фигурами цвета attackerColor. Прыгающие фигуры ищутся по таблицам
+    // от самой клетки, дальнобойные - заливкой от клетки по пустым полям
+    public boolean isSquareAttacked(int square, Color attackerColor) {
+        WideBitboard[] attacker = pieces[attackerColor.ordinal()];
+
+        if (PAWN_ATTACKS[attackerColor.opposite().ordinal()][square].intersects(attacker[PieceType.PAWN.ordinal()])
+                || KNIGHT_ATTACKS[square].intersects(attacker[PieceType.KNIGHT.ordinal()])
+                || KING_ATTACKS[square].intersects(attacker[PieceType.KING.ordinal()])
+                || CHAMPION_ATTACKS[square].intersects(attacker[PieceType.CHAMPION.ordinal()])
+                || WIZARD_ATTACKS[square].intersects(attacker[PieceType.WIZARD.ordinal()])) {
+            return true;
+        }
+
+        WideBitboard queens = attacker[PieceType.QUEEN.ordinal()];
+        WideBitboard rooks = attacker[PieceType.ROOK.ordinal()];
+        WideBitboard bishops = attacker[PieceType.BISHOP.ordinal()];
+        for (int dir = 0; dir < WideBitboard.DIRECTIONS.length; dir++) {
+            WideBitboard sliders = (dir < 4) ? rooks : bishops;
+            if (sliders.isEmpty() && queens.isEmpty()) {
+                continue;
+            }
+            scratch.clear().set(square).slide(dir, empty);
+            if (scratch.intersects(sliders) || scratch.intersects(queens)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Клетка короля или -1, если короля нет
+    public int getKingSquare(Color color) {
+        return pieces[color.ordinal()][PieceType.KING.ordinal()].nextSetBit(0);
+    }
+
+    public void clear() {
+        for (WideBitboard[] byType : pieces) {
+            for (WideBitboard bitboard : byType) {
+                bitboard.clear();
+            }
+        }
+        occupancy[0].clear();
+        occupancy[1].clear();
+        allPieces.clear();
+        updateEmpty();
+    }
+
+    private void updateEmpty() {
+        empty.set(allPieces).not().andMainBoard();
+    }
+}
@@ -0,0 +1,77 @@
+package main;
+
+// Ключи Zobrist: 64-битный идентификатор позиции (фигуры на клетках, очередь хода,
+// права на рокировку, вертикаль взятия на проходе). Клетки - номера битборда 0..103
+// (та же нумерация, что в WideBitboard; для CLASSIC используются первые 64).
+// Ключи строятся из фиксированного зерна, поэтому одинаковы от запуска к запуску
+public final class Zobrist {
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final int TYPES = PieceType.values().length;
+
+    private static final long[] PIECE_SQUARE = new long[2 * TYPES * WideBitboard.SQUARES];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[WideBitboard.SIZE];
+    private static final long SIDE_TO_MOVE;
+
+    static {
+        long seed = 0x9E3779B97F4A7C15L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            seed = next(seed);
+            PIECE_SQUARE[i] = mix(seed);
+        }
+        // Ключ набора прав - XOR ключей отдельных прав
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            seed = next(seed);
+            rights[i] = mix(seed);
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            seed = next(seed);
+            EN_PASSANT_FILE[file] = mix(seed);
+        }
+        seed = next(seed);
+        SIDE_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    // Генератор SplitMix64
+    private static long next(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long piece(Color color, PieceType type, int square) {
+        return PIECE_SQUARE[(color.ordinal() * TYPES + type.ordinal()) * WideBitboard.SQUARES + square];
+    }
+
+    // Права на рокировку - маска из констант WHITE_KING_SIDE..BLACK_QUEEN_SIDE
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassantFile(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    public static long sideToMove() {
+        return SIDE_TO_MOVE;
+    }
+}
@@ -0,0 +1,229 @@
+package main.engine;
+
+import main.Game;
+import main.Log;
+import main.Mailbox;
+import main.PositionSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Точка входа движка. Ищет на собственной копии позиции из снимка, поэтому партию
+// (в том числе партию GUI) можно продолжать менять во время поиска.
+// Один поиск за раз; stop() можно вызвать из любого потока.
+// Таблица транспозиций сохраняется между поисками.
+//
+// Многопоточность - Lazy SMP: главный поток (вызывающий search) и threads - 1 помощников
+// ищут одну и ту же позицию, каждый на своей доске со своим порядком ходов. Общая у них
+// только таблица транспозиций: помощники наполняют её, главный поток чаще попадает в неё.
+// Результат - всегда результат главного потока, помощники останавливаются вместе с ним
+public class Engine {
+    public static final int MAX_THREADS = 256;
+    private static final long STOP_POLL_MILLIS = 10;
+
+    private final TranspositionTable table;
+    private final Evaluation evaluation = new Evaluation();
+    private volatile SearchOptions searchOptions = SearchOptions.all();
+    private int threads = 1;
+    private ExecutorService helperPool;
+    private volatile List<Searcher> current;
+
+    public Engine() {
+        this(TranspositionTable.DEFAULT_SIZE_MB);
+    }
+
+    public Engine(int hashSizeMb) {
+        this.table = new TranspositionTable(hashSizeMb);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    // Изменить размер таблицы транспозиций (в мегабайтах); не во время поиска
+    public void setHashSize(int megabytes) {
+        table.resize(megabytes);
+    }
+
+    // Забыть результаты прошлых поисков, например перед новой партией
+    public void clearHash() {
+        table.clear();
+    }
+
+    // Оценка позиции; её веса (например, стоимость Champion и Wizard) настраиваются между поисками
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    public SearchOptions getSearchOptions() {
+        return searchOptions;
+    }
+
+    // Включённые приёмы поиска; действует со следующего поиска
+    public void setSearchOptions(SearchOptions searchOptions) {
+        this.searchOptions = searchOptions;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Число потоков поиска вместе с главным; не во время поиска
+    public synchronized void setThreads(int threads) {
+        if (threads < 1 || threads > MAX_THREADS) {
+            throw new IllegalArgumentException("Число потоков поиска: 1.." + MAX_THREADS);
+        }
+        if (threads != this.threads) {
+            shutdownHelpers();
+            this.threads = threads;
+        }
+    }
+
+    public SearchResult search(Game game, SearchLimits limits) {
+        return search(game.getSnapshot(), limits);
+    }
+
+    public SearchResult search(PositionSnapshot position, SearchLimits limits) {
+        return search(position, limits, null);
+    }
+
+    // onIteration получает результат каждой завершённой итерации главного потока
+    // (в потоке поиска); узлы помощников в нём учтены приблизительно
+    public synchronized SearchResult search(PositionSnapshot position, SearchLimits limits,
+                                            Consumer<SearchResult> onIteration) {
+        table.newSearch();
+        SearchOptions options = searchOptions;
+        Searcher main = new Searcher(position, table, evaluation, options);
+        List<Searcher> searchers = new ArrayList<>(threads);
+        searchers.add(main);
+        for (int i = 1; i < threads; i++) {
+            searchers.add(new Searcher(position, table, evaluation, options));
+        }
+        current = searchers;
+        if (onIteration != null) {
+            main.setIterationListener(result -> {
+                long nodes = result.getNodes();
+                for (int i = 1; i < searchers.size(); i++) {
+                    nodes += searchers.get(i).getNodes();
+                }
+                onIteration.accept(new SearchResult(result.getBestMove(), result.getPv(), result.getScore(),
+                        result.getDepth(), nodes, result.getTimeMillis()));
+            });
+        }
+
+        // Помощники ищут без ограничения глубины и узлов - их останавливает главный поток
+        SearchLimits helperLimits = new SearchLimits(0, 0, limits.getTimeMillis());
+        List<Future<?>> helpers = new ArrayList<>(threads - 1);
+        for (int i = 1; i < threads; i++) {
+            Searcher helper = searchers.get(i);
+            int firstDepth = 1 + (i & 1);
+            helpers.add(helperPool().submit(() -> helper.search(helperLimits, firstDepth)));
+        }
+
+        try {
+            SearchResult result = main.search(limits);
+            long nodes = result.getNodes();
+            for (int i = 1; i < threads; i++) {
+                searchers.get(i).stop();
+            }
+            for (int i = 0; i < helpers.size(); i++) {
+                await(helpers.get(i));
+                nodes += searchers.get(i + 1).getNodes();
+            }
+            SearchResult total = (threads == 1) ? result : new SearchResult(result.getBestMove(), result.getPv(),
+                    result.getScore(), result.getDepth(), nodes, result.getTimeMillis());
+            Log.debug(() -> "Поиск: " + total.toString(Mailbox.forGameType(position.getGameType())));
+            return total;
+        } finally {
+            for (Searcher searcher : searchers) {
+                searcher.stop();
+            }
+            current = null;
+        }
+    }
+
+    // Прервать текущий поиск; он вернёт результат последней завершённой итерации
+    public void stop() {
+        List<Searcher> searchers = current;
+        if (searchers != null) {
+            for (Searcher searcher : searchers) {
+                searcher.stop();
+            }
+        }
+    }
+
+    // Остановить поиск, запущенный задачей task в другом потоке, и дождаться её конца.
+    // Задача могла ещё не начать поиск, когда пришёл stop, - повторяем, пока она не закончится
+    public void stopAndWait(Future<?> task) {
+        while (!task.isDone()) {
+            stop();
+            try {
+                task.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // ещё идёт - останавливаем снова
+            } catch (ExecutionException e) {
+                Log.error("Ошибка поиска", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Ограничить по времени идущий поиск (ponderhit): бюджет limits отсчитывается с текущего
+    // момента, глубина и узлы не меняются. false - поиск ещё не начался или уже закончился
+    public boolean setTimeLimits(SearchLimits limits) {
+        List<Searcher> searchers = current;
+        if (searchers == null) {
+            return false;
+        }
+        // Помощникам, как и при обычном поиске, - только жёсткий срок
+        searchers.get(0).setTimeLimits(limits.getTimeMillis(), limits.getSoftTimeMillis());
+        for (int i = 1; i < searchers.size(); i++) {
+            searchers.get(i).setTimeLimits(limits.getTimeMillis(), 0);
+        }
+        return true;
+    }
+
+    // Остановить потоки помощников (например, при выходе). Следующий поиск создаст их снова
+    public synchronized void shutdown() {
+        shutdownHelpers();
+    }
+
+    private static void await(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (ExecutionException e) {
+            Log.error("Ошибка в потоке поиска", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService helperPool() {
+        if (helperPool == null) {
+            AtomicInteger counter = new AtomicInteger();
+            helperPool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                Thread thread = new Thread(runnable, "search-helper-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return helperPool;
+    }
+
+    private void shutdownHelpers() {
+        if (helperPool != null) {
+            helperPool.shutdown();
+            helperPool = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package main.engine;
+
+import main.Board;
+import main.Color;
+import main.PieceSquareTables;
+import main.PieceType;
+
+// Оценка позиции в сантипешках: материал и таблицы "фигура-клетка", отдельно для миттельшпиля
+// и эндшпиля, смешанные по фазе партии (tapered eval): с уходом фигур вес смещается к эндшпилю.
+// Стоимость фигур настраивается (в первую очередь Champion и Wizard, чья сила в Omega
+// оценивается по-разному). Настраивать до поиска: потоки поиска читают значения без блокировок
+public class Evaluation {
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    // Поправка к стоимости по умолчанию (PieceSquareTables.material): [тип][MG/EG].
+    // Материал по умолчанию Board считает сам, оценка добавляет только поправки настроенных типов
+    private final int[][] materialDelta = new int[PIECE_TYPES.length][2];
+    private boolean tuned;
+
+    public int getMaterial(PieceType type, int phase) {
+        return PieceSquareTables.material(phase, type) + materialDelta[type.ordinal()][phase];
+    }
+
+    // Стоимость фигуры в миттельшпиле и эндшпиле (король не оценивается)
+    public void setMaterial(PieceType type, int middlegame, int endgame) {
+        if (type == PieceType.KING) {
+            throw new IllegalArgumentException("Стоимость короля не настраивается");
+        }
+        materialDelta[type.ordinal()][PieceSquareTables.MG] = middlegame - PieceSquareTables.material(PieceSquareTables.MG, type);
+        materialDelta[type.ordinal()][PieceSquareTables.EG] = endgame - PieceSquareTables.material(PieceSquareTables.EG, type);
+        tuned = false;
+        for (int[] delta : materialDelta) {
+            tuned |= delta[PieceSquareTables.MG] != 0 || delta[PieceSquareTables.EG] != 0;
+        }
+    }
+
+    // Оценка с точки зрения стороны side за O(1): материал, суммы таблиц и фазу ведёт Board
+    public int evaluate(Board board, Color side) {
+        int middlegame = board.getMaterial(Color.WHITE, PieceSquareTables.MG) - board.getMaterial(Color.BLACK, PieceSquareTables.MG)
+                + board.getPieceSquareSum(Color.WHITE, PieceSquareTables.MG) - board.getPieceSquareSum(Color.BLACK, PieceSquareTables.MG);
+        int endgame = board.getMaterial(Color.WHITE, PieceSquareTables.EG) - board.getMaterial(Color.BLACK, PieceSquareTables.EG)
+                + board.getPieceSquareSum(Color.WHITE, PieceSquareTables.EG) - board.getPieceSquareSum(Color.BLACK, PieceSquareTables.EG);
+        if (tuned) {
+            for (PieceType type : PIECE_TYPES) {
+                int balance = board.getPieceCount(Color.WHITE, type) - board.getPieceCount(Color.BLACK, type);
+                middlegame += balance * materialDelta[type.ordinal()][PieceSquareTables.MG];
+                endgame += balance * materialDelta[type.ordinal()][PieceSquareTables.EG];
+            }
+        }
+        int maxPhase = PieceSquareTables.forGameType(board.getGame().getGameType()).getMaxPhase();
+        int score = taper(middlegame, endgame, board.getPhase(), maxPhase);
+        return (side == Color.WHITE) ? score : -score;
+    }
+
+    // Смешать оценки миттельшпиля и эндшпиля по фазе (после превращений фаза может
+    // превысить начальную - тогда это чистый миттельшпиль)
+    static int taper(int middlegame, int endgame, int phase, int maxPhase) {
+        int clamped = Math.min(phase, maxPhase);
+        return (middlegame * clamped + endgame * (maxPhase - clamped)) / maxPhase;
+    }
+}
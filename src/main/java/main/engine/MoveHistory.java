@@ -0,0 +1,73 @@
+package main.engine;
+
+import main.Color;
+import main.Mailbox;
+import main.Move;
+import main.MoveList;
+import main.PieceType;
+
+import java.util.Arrays;
+
+// Состояние упорядочивания ходов одного потока поиска: ходы-убийцы по полуходам
+// и таблица истории тихих ходов history[фигура][клетка to]. Между потоками не делится
+final class MoveHistory {
+    static final int KILLERS = 2;
+    // Предел значения истории: бонусы затухают к нему ("гравитация"), переполнения нет
+    private static final int HISTORY_MAX = 1 << 14;
+    private static final int TYPES = PieceType.values().length;
+
+    private final Mailbox mailbox;
+    private final int[][] killers = new int[Searcher.MAX_PLY][KILLERS];
+    private final int[][] history;
+
+    MoveHistory(Mailbox mailbox) {
+        this.mailbox = mailbox;
+        this.history = new int[2 * TYPES][mailbox.squareCount()];
+    }
+
+    int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+    int history(Color side, int move) {
+        return history[pieceIndex(side, Move.moved(move))][mailbox.toSquare(Move.to(move))];
+    }
+
+    // Тихий ход move дал отсечение: он становится первым убийцей полухода, получает бонус
+    // истории, а тихие ходы, испробованные до него (tried), - штраф
+    void onCutoff(Color side, int move, int ply, int depth, MoveList tried) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int bonus = Math.min(depth * depth, HISTORY_MAX / 4);
+        update(side, move, bonus);
+        for (int i = 0; i < tried.size(); i++) {
+            if (tried.get(i) != move) {
+                update(side, tried.get(i), -bonus);
+            }
+        }
+    }
+
+    private void update(Color side, int move, int bonus) {
+        int[] row = history[pieceIndex(side, Move.moved(move))];
+        int square = mailbox.toSquare(Move.to(move));
+        row[square] += bonus - row[square] * Math.abs(bonus) / HISTORY_MAX;
+    }
+
+    // Перед новым поиском: убийцы привязаны к позиции, историю только ослабляем
+    void newSearch() {
+        for (int[] pair : killers) {
+            Arrays.fill(pair, 0);
+        }
+        for (int[] row : history) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] /= 2;
+            }
+        }
+    }
+
+    private static int pieceIndex(Color side, PieceType type) {
+        return side.ordinal() * TYPES + type.ordinal();
+    }
+}
@@ -0,0 +1,234 @@
+package main.engine;
+
+import main.Board;
+import main.Color;
+import main.Move;
+import main.MoveList;
+import main.PieceType;
+import main.StaticExchange;
+
+// Поэтапная выдача ходов узла в порядке, при котором альфа-бета раньше отсекает:
+//   1. ход из таблицы транспозиций (проверяется генерацией ходов одной фигуры);
+//   2. взятия и превращения по MVV-LVA; взятие, проигрывающее размен (SEE < 0), откладывается;
+//   3. ходы-убийцы этого полухода;
+//   4. тихие ходы по таблице истории;
+//   5. отложенные проигрывающие взятия.
+// Каждый этап готовится только когда до него дошли: если отсёк ход из таблицы,
+// ходы позиции не генерируются, SEE считается только для выбранного взятия,
+// история - только при переходе к тихим ходам.
+// В форсированном поиске (initCaptures) выдаются только выгодные взятия и превращения.
+// Один MovePicker на полуход, переиспользуется между узлами
+final class MovePicker {
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_GENERATE = 1;
+    private static final int STAGE_GOOD_CAPTURES = 2;
+    private static final int STAGE_KILLERS = 3;
+    private static final int STAGE_QUIETS_INIT = 4;
+    private static final int STAGE_QUIETS = 5;
+    private static final int STAGE_BAD_CAPTURES = 6;
+    private static final int STAGE_DONE = 7;
+
+    // Ранг нападающего для LVA по PieceType.ordinal: чем дешевле фигура, тем раньше бьёт
+    private static final int[] ATTACKER_RANK = {0, 1, 1, 3, 4, 5, 3, 2};
+
+    private final Board board;
+    private final MoveHistory history;
+    private final MoveList moves = new MoveList();
+    private final MoveList pieceMoves = new MoveList();
+    private int[] scores = new int[256];
+    private final MoveList badCaptures = new MoveList();
+
+    private Color side;
+    private int ply;
+    private int hashMove;
+    private boolean capturesOnly;
+    private int stage;
+    private int current;
+    private int captureEnd;
+    private int killerSlot;
+    private final int[] killersTried = new int[MoveHistory.KILLERS];
+
+    MovePicker(Board board, MoveHistory history) {
+        this.board = board;
+        this.history = history;
+    }
+
+    void init(Color side, int ply, int hashMove) {
+        this.side = side;
+        this.ply = ply;
+        this.hashMove = hashMove;
+        this.capturesOnly = false;
+        this.stage = STAGE_HASH;
+        this.killerSlot = 0;
+        moves.clear();
+        badCaptures.clear();
+    }
+
+    // Только взятия и превращения с SEE >= 0 - для форсированного поиска
+    void initCaptures(Color side, int ply) {
+        init(side, ply, Move.NONE);
+        this.capturesOnly = true;
+        this.stage = STAGE_GENERATE;
+    }
+
+    // Следующий ход или Move.NONE, если ходы кончились.
+    // Стадии намеренно проваливаются одна в другую, когда текущая исчерпана
+    @SuppressWarnings("fallthrough")
+    int next() {
+        switch (stage) {
+            case STAGE_HASH:
+                stage = STAGE_GENERATE;
+                if (hashMove != Move.NONE && isLegalHashMove()) {
+                    return hashMove;
+                }
+                // fall through
+            case STAGE_GENERATE:
+                generate();
+                stage = STAGE_GOOD_CAPTURES;
+                // fall through
+            case STAGE_GOOD_CAPTURES:
+                while (current < captureEnd) {
+                    int move = pickBest(current, captureEnd);
+                    current++;
+                    if (move == hashMove) {
+                        continue;
+                    }
+                    if (StaticExchange.value(Move.moved(move)) > victimValue(move) && board.staticExchange(move) < 0) {
+                        badCaptures.add(move);
+                        continue;
+                    }
+                    return move;
+                }
+                if (capturesOnly) {
+                    stage = STAGE_DONE;
+                    return Move.NONE;
+                }
+                stage = STAGE_KILLERS;
+                // fall through
+            case STAGE_KILLERS:
+                while (killerSlot < MoveHistory.KILLERS) {
+                    int killer = history.killer(ply, killerSlot);
+                    killersTried[killerSlot++] = killer;
+                    // Второй слот может совпасть с первым - такой ход уже выдан
+                    boolean repeated = killerSlot == 2 && killer == killersTried[0];
+                    if (killer != Move.NONE && killer != hashMove && !repeated && isQuiet(killer)
+                            && containsQuiet(killer)) {
+                        return killer;
+                    }
+                }
+                stage = STAGE_QUIETS_INIT;
+                // fall through
+            case STAGE_QUIETS_INIT:
+                scoreQuiets();
+                current = captureEnd;
+                stage = STAGE_QUIETS;
+                // fall through
+            case STAGE_QUIETS:
+                while (current < moves.size()) {
+                    int move = pickBest(current, moves.size());
+                    current++;
+                    if (move != hashMove && !isKiller(move)) {
+                        return move;
+                    }
+                }
+                stage = STAGE_BAD_CAPTURES;
+                current = 0;
+                // fall through
+            case STAGE_BAD_CAPTURES:
+                if (current < badCaptures.size()) {
+                    return badCaptures.get(current++);
+                }
+                stage = STAGE_DONE;
+                // fall through
+            default:
+                return Move.NONE;
+        }
+    }
+
+    // Тихий ход - не взятие и не превращение (их история и убийцы не запоминают)
+    static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && !Move.isEnPassant(move) && !Move.isPromotion(move);
+    }
+
+    private boolean isLegalHashMove() {
+        // Ход из таблицы может оказаться чужим (коллизия ключей, другой тип доски)
+        int from = Move.from(hashMove);
+        if (from >= board.getMailbox().size() || board.getPieceAt(from) == null || board.getPieceAt(from).getColor() != side) {
+            return false;
+        }
+        pieceMoves.clear();
+        board.generateLegalMoves(from, pieceMoves);
+        return pieceMoves.contains(hashMove);
+    }
+
+    // Все легальные ходы; взятия и превращения - в начало списка с оценкой MVV-LVA
+    private void generate() {
+        board.generateLegalMoves(side, moves);
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size() * 2];
+        }
+        captureEnd = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!isQuiet(move)) {
+                moves.set(i, moves.get(captureEnd));
+                moves.set(captureEnd, move);
+                PieceType promotion = Move.promotion(move);
+                scores[captureEnd] = victimValue(move) * 8 - ATTACKER_RANK[Move.moved(move).ordinal()]
+                        + ((promotion != null) ? StaticExchange.value(promotion) * 8 : 0);
+                captureEnd++;
+            }
+        }
+        current = 0;
+    }
+
+    private static int victimValue(int move) {
+        if (Move.isEnPassant(move)) {
+            return StaticExchange.value(PieceType.PAWN);
+        }
+        PieceType captured = Move.captured(move);
+        return (captured != null) ? StaticExchange.value(captured) : 0;
+    }
+
+    private void scoreQuiets() {
+        for (int i = captureEnd; i < moves.size(); i++) {
+            scores[i] = history.history(side, moves.get(i));
+        }
+    }
+
+    // Лучший по оценке ход из [from, to) ставится на место from (выборочная сортировка:
+    // при раннем отсечении остальные ходы так и не сортируются)
+    private int pickBest(int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        int score = scores[best];
+        moves.set(best, moves.get(from));
+        scores[best] = scores[from];
+        moves.set(from, move);
+        scores[from] = score;
+        return move;
+    }
+
+    private boolean containsQuiet(int move) {
+        for (int i = captureEnd; i < moves.size(); i++) {
+            if (moves.get(i) == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isKiller(int move) {
+        for (int slot = 0; slot < MoveHistory.KILLERS; slot++) {
+            if (killersTried[slot] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
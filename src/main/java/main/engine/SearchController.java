@@ -0,0 +1,152 @@
+package main.engine;
+
+import main.Game;
+import main.Log;
+import main.Mailbox;
+import main.Move;
+import main.Position;
+import main.PositionSnapshot;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// Управление поиском для интерактивной игры: ход движка ищется в фоновом потоке
+// с бюджетом по часам (TimeManager), а пока думает человек, движок размышляет над
+// позицией после ожидаемого ответа (второй ход главного варианта). Если ответ угадан,
+// размышление не прерывается, а получает бюджет хода и становится поиском хода;
+// иначе оно останавливается (наполненная им таблица транспозиций всё равно пригодится).
+// Все поиски идут по очереди в одном потоке; остановка кооперативная - флаг,
+// который поиск проверяет раз в несколько сотен узлов
+public class SearchController {
+    private static final long STOP_POLL_MILLIS = 10;
+
+    private final Engine engine;
+    private final ExecutorService executor;
+    private Future<?> searching;
+    private CompletableFuture<SearchResult> pondering;
+    private PositionSnapshot ponderPosition;
+
+    public SearchController(Engine engine) {
+        this.engine = engine;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "engine-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    // Найти ход в фоне. onResult вызывается в потоке поиска (в GUI - через Platform.runLater).
+    // Если идёт размышление над этой самой позицией, ход берётся из него
+    public synchronized Future<SearchResult> searchMove(PositionSnapshot position, long remainingMillis,
+                                                        long incrementMillis, Consumer<SearchResult> onResult) {
+        SearchLimits limits = TimeManager.allocate(position.getGameType(), remainingMillis, incrementMillis, 0);
+        Log.debug(() -> "Бюджет хода: " + limits);
+        CompletableFuture<SearchResult> future;
+        if (isPonderHit(position) && applyTimeLimits(pondering, limits)) {
+            future = pondering;
+            pondering = null;
+            ponderPosition = null;
+            Log.debug("Ответ угадан: размышление продолжается как поиск хода");
+        } else {
+            stopPondering();
+            future = CompletableFuture.supplyAsync(() -> engine.search(position, limits), executor);
+        }
+        future.thenAccept(onResult).exceptionally(error -> {
+            Log.error("Ошибка поиска хода", error);
+            return null;
+        });
+        searching = future;
+        return future;
+    }
+
+    // Начать размышление над позицией после хода движка (position) и ожидаемого ответа
+    // из result. false - ответа в главном варианте нет
+    public synchronized boolean startPondering(PositionSnapshot position, SearchResult result) {
+        stopPondering();
+        int[] pv = result.getPv();
+        if (pv.length < 2) {
+            return false;
+        }
+        Game afterReply = Game.fromSnapshot(position);
+        Mailbox mailbox = afterReply.getBoard().getMailbox();
+        Position from = mailbox.toPosition(Move.from(pv[1]));
+        Position to = mailbox.toPosition(Move.to(pv[1]));
+        if (!afterReply.makeMove(from, to)) {
+            return false;
+        }
+        if (Move.isPromotion(pv[1])) {
+            afterReply.promotePawn(to, Move.promotion(pv[1]).pieceClass());
+        }
+        PositionSnapshot reply = afterReply.getSnapshot();
+        ponderPosition = reply;
+        pondering = CompletableFuture.supplyAsync(() -> engine.search(reply, SearchLimits.infinite()), executor);
+        Log.debug(() -> "Размышление над ответом " + Move.toString(pv[1], mailbox));
+        return true;
+    }
+
+    // Размышление идёт над позицией position, то есть человек сыграл ожидаемый ответ
+    // (сравниваются ключи: совпадают и фигура превращения, и права на рокировку)
+    public synchronized boolean isPonderHit(PositionSnapshot position) {
+        return pondering != null && !pondering.isDone()
+                && ponderPosition.getGameType() == position.getGameType()
+                && ponderPosition.getZobristKey() == position.getZobristKey();
+    }
+
+    public synchronized boolean isPondering() {
+        return pondering != null && !pondering.isDone();
+    }
+
+    public synchronized void stopPondering() {
+        if (pondering != null) {
+            engine.stopAndWait(pondering);
+            pondering = null;
+            ponderPosition = null;
+        }
+    }
+
+    // Остановить всё: ход, найденный к этому моменту, всё равно придёт в onResult
+    public synchronized void stop() {
+        stopPondering();
+        if (searching != null) {
+            engine.stopAndWait(searching);
+            searching = null;
+        }
+    }
+
+    public synchronized void shutdown() {
+        stop();
+        executor.shutdown();
+        engine.shutdown();
+    }
+
+    // Перевести идущее размышление на бюджет хода. Задача могла ещё не начать поиск -
+    // ждём, пока он начнётся. false - размышление уже закончилось само (например, нашло мат)
+    private boolean applyTimeLimits(Future<?> task, SearchLimits limits) {
+        while (!task.isDone()) {
+            if (engine.setTimeLimits(limits)) {
+                return true;
+            }
+            try {
+                task.get(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // поиск ещё не начался - пробуем снова
+            } catch (ExecutionException e) {
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,67 @@
+package main.engine;
+
+// Ограничения поиска: глубина в полуходах, число узлов и время в миллисекундах.
+// 0 - ограничения нет. Без ограничений поиск идёт до MAX_DEPTH (или до stop).
+// Время бывает жёстким (поиск прерывается посреди итерации) и мягким (новая итерация
+// не начинается, если она, скорее всего, не успеет); мягкое задаёт TimeManager
+public final class SearchLimits {
+    public static final int MAX_DEPTH = 64;
+
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final long softTimeMillis;
+
+    public SearchLimits(int depth, long nodes, long timeMillis) {
+        this(depth, nodes, timeMillis, 0);
+    }
+
+    public SearchLimits(int depth, long nodes, long timeMillis, long softTimeMillis) {
+        if (depth < 0 || nodes < 0 || timeMillis < 0 || softTimeMillis < 0) {
+            throw new IllegalArgumentException("Ограничения поиска не могут быть отрицательными");
+        }
+        this.depth = Math.min(depth, MAX_DEPTH);
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.softTimeMillis = softTimeMillis;
+    }
+
+    // Без ограничений: до stop() (размышление во время хода соперника, анализ)
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, 0, timeMillis);
+    }
+
+    // Глубина итеративного углубления с учётом MAX_DEPTH
+    public int getDepth() {
+        return (depth > 0) ? depth : MAX_DEPTH;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getSoftTimeMillis() {
+        return softTimeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + depth + " nodes " + nodes + " time " + timeMillis + " soft " + softTimeMillis;
+    }
+}
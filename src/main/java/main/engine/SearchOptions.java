@@ -0,0 +1,97 @@
+package main.engine;
+
+import java.util.EnumSet;
+
+// Набор включённых приёмов поиска. Неизменяемый: Engine.setSearchOptions подменяет его
+// целиком, а идущий поиск дорабатывает со старым набором.
+// Все выключены - чистый альфа-бета с итеративным углублением и оценкой на горизонте
+public final class SearchOptions {
+    public enum Feature {
+        QUIESCENCE("Quiescence"),                // форсированный поиск взятий на горизонте
+        NULL_MOVE("NullMove"),                   // отсечение нулевым ходом
+        LATE_MOVE_REDUCTIONS("LateMoveReductions"), // сокращение глубины поздних тихих ходов
+        FUTILITY("Futility"),                    // отсечение безнадёжных тихих ходов у горизонта
+        CHECK_EXTENSIONS("CheckExtensions"),     // продление поиска под шахом
+        PVS("PVS"),                              // поиск главного варианта с нулевым окном
+        ASPIRATION_WINDOWS("AspirationWindows"); // узкое окно вокруг оценки прошлой итерации
+
+        private final String optionName;
+
+        Feature(String optionName) {
+            this.optionName = optionName;
+        }
+
+        // Имя опции в протоколе UCI
+        public String getOptionName() {
+            return optionName;
+        }
+    }
+
+    private static final SearchOptions ALL = new SearchOptions(EnumSet.allOf(Feature.class));
+    private static final SearchOptions NONE = new SearchOptions(EnumSet.noneOf(Feature.class));
+
+    private final EnumSet<Feature> enabled;
+
+    private SearchOptions(EnumSet<Feature> enabled) {
+        this.enabled = enabled;
+    }
+
+    public static SearchOptions all() {
+        return ALL;
+    }
+
+    public static SearchOptions none() {
+        return NONE;
+    }
+
+    public boolean isEnabled(Feature feature) {
+        return enabled.contains(feature);
+    }
+
+    public SearchOptions with(Feature feature) {
+        return set(feature, true);
+    }
+
+    public SearchOptions without(Feature feature) {
+        return set(feature, false);
+    }
+
+    public SearchOptions set(Feature feature, boolean on) {
+        if (isEnabled(feature) == on) {
+            return this;
+        }
+        EnumSet<Feature> features = EnumSet.copyOf(enabled);
+        if (on) {
+            features.add(feature);
+        } else {
+            features.remove(feature);
+        }
+        return new SearchOptions(features);
+    }
+
+    // "all", "none", "all-NullMove-PVS" или "Quiescence+PVS" - что короче
+    @Override
+    public String toString() {
+        int count = Feature.values().length;
+        if (enabled.size() == count) {
+            return "all";
+        }
+        if (enabled.isEmpty()) {
+            return "none";
+        }
+        StringBuilder text = new StringBuilder();
+        if (enabled.size() * 2 > count) {
+            text.append("all");
+            for (Feature feature : Feature.values()) {
+                if (!enabled.contains(feature)) {
+                    text.append('-').append(feature.getOptionName());
+                }
+            }
+        } else {
+            for (Feature feature : enabled) {
+                text.append(text.length() == 0 ? "" : "+").append(feature.getOptionName());
+            }
+        }
+        return text.toString();
+    }
+}
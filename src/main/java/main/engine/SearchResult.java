@@ -0,0 +1,77 @@
+package main.engine;
+
+import main.Mailbox;
+import main.Move;
+
+// Результат поиска: лучший ход (упакованный Move), главный вариант, оценка в сантипешках
+// с точки зрения стороны, которая ходит, и статистика последней завершённой итерации.
+// bestMove == 0 - ходов нет (мат или пат)
+public final class SearchResult {
+    private final int bestMove;
+    private final int[] pv;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+
+    public SearchResult(int bestMove, int[] pv, int score, int depth, long nodes, long timeMillis) {
+        this.bestMove = bestMove;
+        this.pv = pv;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    public boolean hasBestMove() {
+        return bestMove != 0;
+    }
+
+    public int[] getPv() {
+        return pv.clone();
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public boolean isMateScore() {
+        return Searcher.isMateScore(score);
+    }
+
+    // Через сколько ходов (не полуходов) мат: > 0 - ставим мы, < 0 - нам, 0 - не мат
+    public int getMateIn() {
+        if (!isMateScore()) {
+            return 0;
+        }
+        int plies = Searcher.MATE - Math.abs(score);
+        return (score > 0) ? (plies + 1) / 2 : -(plies + 1) / 2;
+    }
+
+    public String toString(Mailbox mailbox) {
+        StringBuilder text = new StringBuilder();
+        text.append("depth ").append(depth);
+        text.append(isMateScore() ? " mate " + getMateIn() : " score " + score);
+        text.append(" nodes ").append(nodes).append(" time ").append(timeMillis).append(" pv");
+        for (int move : pv) {
+            text.append(' ').append(Move.toString(move, mailbox));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,473 @@
+package main.engine;
+
+import main.Board;
+import main.Color;
+import main.Game;
+import main.Move;
+import main.MoveList;
+import main.PieceType;
+import main.PositionSnapshot;
+
+import java.util.function.Consumer;
+
+// Negamax с альфа-бета отсечением и итеративным углублением. Форсированный поиск взятий,
+// нулевой ход, сокращения поздних ходов, futility, продление шахов, PVS и окна
+// устремления включаются по отдельности (SearchOptions).
+// Работает на своей копии позиции (Game.fromSnapshot) и ходит упакованными ходами
+// Board.makeMove/unmakeMove, поэтому партию GUI не трогает. Один поток - один Searcher;
+// таблица транспозиций может быть общей для нескольких
+class Searcher {
+    // Оценки умещаются в short записи таблицы транспозиций
+    static final int INFINITY = 32_000;
+    static final int MATE = 30_000;
+    static final int MAX_PLY = 128;
+    // Проверка времени и внешней остановки раз в CHECK_INTERVAL узлов
+    private static final int CHECK_INTERVAL = 1024;
+    private static final int[] NO_PV = new int[0];
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int FUTILITY_MAX_DEPTH = 3;
+    private static final int FUTILITY_MARGIN = 150; // за полуход до горизонта
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_FULL_DEPTH_MOVES = 3; // первые ходы узла без сокращения
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 25;
+    // Сокращение по глубине и номеру хода: растёт как произведение логарифмов
+    private static final int[][] LMR_REDUCTIONS = new int[64][64];
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int moveNumber = 1; moveNumber < 64; moveNumber++) {
+                LMR_REDUCTIONS[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+    }
+
+    private final Game game;
+    private final Board board;
+    private final Color rootSide;
+    private final TranspositionTable table;
+    private final Evaluation evaluation;
+    private final boolean quiescence;
+    private final boolean nullMove;
+    private final boolean lateMoveReductions;
+    private final boolean futility;
+    private final boolean checkExtensions;
+    private final boolean pvs;
+    private final boolean aspirationWindows;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final MoveList[] quietsTried = new MoveList[MAX_PLY];
+    private final MoveHistory history;
+    // Треугольная таблица главного варианта: pvTable[ply] - вариант от ply
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+
+    private volatile boolean stopRequested;
+    private boolean aborted;
+    private long nodes;
+    private long nodeLimit;
+    // Сроки по часам (0 - нет): жёсткий и момент, после которого новая итерация не начинается.
+    // volatile - их может сдвинуть setTimeLimits из другого потока во время поиска
+    private volatile long deadline;
+    private volatile long iterationDeadline;
+    private boolean timeLimitsSet;
+    // Лучший ход корня в текущей итерации (до её завершения) и его оценка
+    private int rootBestMove;
+    private int rootBestScore;
+    // Вызывается после каждой завершённой итерации (строки info протокола)
+    private Consumer<SearchResult> iterationListener;
+
+    Searcher(PositionSnapshot position, TranspositionTable table, Evaluation evaluation, SearchOptions options) {
+        this.game = Game.fromSnapshot(position);
+        this.board = game.getBoard();
+        this.rootSide = position.getSideToMove();
+        this.table = table;
+        this.evaluation = evaluation;
+        this.quiescence = options.isEnabled(SearchOptions.Feature.QUIESCENCE);
+        this.nullMove = options.isEnabled(SearchOptions.Feature.NULL_MOVE);
+        this.lateMoveReductions = options.isEnabled(SearchOptions.Feature.LATE_MOVE_REDUCTIONS);
+        this.futility = options.isEnabled(SearchOptions.Feature.FUTILITY);
+        this.checkExtensions = options.isEnabled(SearchOptions.Feature.CHECK_EXTENSIONS);
+        this.pvs = options.isEnabled(SearchOptions.Feature.PVS);
+        this.aspirationWindows = options.isEnabled(SearchOptions.Feature.ASPIRATION_WINDOWS);
+        this.history = new MoveHistory(board.getMailbox());
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            pickers[ply] = new MovePicker(board, history);
+            quietsTried[ply] = new MoveList();
+        }
+    }
+
+    static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    // Остановить поиск из другого потока. Флаг проверяется раз в CHECK_INTERVAL узлов;
+    // search вернёт лучший найденный к этому моменту ход
+    void stop() {
+        stopRequested = true;
+    }
+
+    // Задать идущему поиску бюджет времени с текущего момента (угаданный ответ при размышлении:
+    // бесконечный поиск становится поиском хода). Если поиск ещё не начался, бюджет из его
+    // SearchLimits не перезапишет этот
+    synchronized void setTimeLimits(long timeMillis, long softTimeMillis) {
+        long now = System.currentTimeMillis();
+        deadline = (timeMillis > 0) ? now + timeMillis : 0;
+        iterationDeadline = (softTimeMillis > 0) ? now + softTimeMillis / 2 : 0;
+        timeLimitsSet = true;
+    }
+
+    void setIterationListener(Consumer<SearchResult> iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    SearchResult search(SearchLimits limits) {
+        return search(limits, 1);
+    }
+
+    // firstDepth > 1 - для помощников Lazy SMP: начав с другой глубины, поток чаще
+    // оказывается в других частях дерева и наполняет таблицу тем, что ещё не найдено
+    SearchResult search(SearchLimits limits, int firstDepth) {
+        long start = System.currentTimeMillis();
+        nodes = 0;
+        aborted = false;
+        history.newSearch();
+        nodeLimit = limits.getNodes();
+        synchronized (this) {
+            if (!timeLimitsSet) {
+                deadline = (limits.getTimeMillis() > 0) ? start + limits.getTimeMillis() : 0;
+                // Следующая итерация обычно дольше всех предыдущих вместе: если потрачено
+                // больше половины мягкого бюджета, она, скорее всего, не успеет
+                long softLimit = limits.getSoftTimeMillis();
+                iterationDeadline = (softLimit > 0) ? start + softLimit / 2 : 0;
+            }
+        }
+
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(rootSide, rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = board.isKingInCheck(rootSide) ? -MATE : 0;
+            return new SearchResult(0, new int[0], score, 0, 0, System.currentTimeMillis() - start);
+        }
+
+        // Если не успеем закончить даже первую итерацию - вернём хоть какой-то легальный ход
+        SearchResult result = new SearchResult(rootMoves.get(0), new int[]{rootMoves.get(0)}, 0, 0, 0, 0);
+        int[] previousPv = new int[0];
+        for (int depth = firstDepth; depth <= limits.getDepth(); depth++) {
+            rootBestMove = 0;
+            int score = searchRoot(depth, result.getScore(), depth > firstDepth, previousPv);
+            if (aborted) {
+                // Прерванная итерация: её лучший ход уже полностью просчитан на новой глубине.
+                // Первым в корне идёт прошлый лучший ход, поэтому другой ход здесь - улучшение
+                if (rootBestMove != 0 && rootBestMove != result.getBestMove()) {
+                    int[] pv = new int[pvLength[0]];
+                    System.arraycopy(pvTable[0], 0, pv, 0, pv.length);
+                    result = new SearchResult(rootBestMove, pv, rootBestScore, result.getDepth(), nodes,
+                            System.currentTimeMillis() - start);
+                }
+                break;
+            }
+            previousPv = collectPv(depth);
+            result = new SearchResult(previousPv[0], previousPv, score, depth, nodes,
+                    System.currentTimeMillis() - start);
+            if (iterationListener != null) {
+                iterationListener.accept(result);
+            }
+            // Найденный мат глубже не улучшится
+            if (isMateScore(score) && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+            long iterationEnd = iterationDeadline;
+            if (iterationEnd > 0 && System.currentTimeMillis() >= iterationEnd) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // Итерация с окном вокруг оценки прошлой итерации: узкое окно отсекает больше, а при выходе
+    // оценки за окно (fail-low/fail-high) окно расширяется в ту сторону и итерация повторяется
+    private int searchRoot(int depth, int previousScore, boolean hasPreviousScore, int[] previousPv) {
+        int window = ASPIRATION_WINDOW;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        if (aspirationWindows && hasPreviousScore && depth >= ASPIRATION_MIN_DEPTH && !isMateScore(previousScore)) {
+            alpha = Math.max(previousScore - window, -INFINITY);
+            beta = Math.min(previousScore + window, INFINITY);
+        }
+        while (true) {
+            int score = negamax(depth, alpha, beta, 0, rootSide, previousPv, true, false);
+            if (aborted) {
+                return score;
+            }
+            window *= 2;
+            if (score <= alpha && alpha > -INFINITY) {
+                alpha = Math.max(alpha - window, -INFINITY);
+            } else if (score >= beta && beta < INFINITY) {
+                beta = Math.min(beta + window, INFINITY);
+            } else {
+                return score;
+            }
+        }
+    }
+
+    // pvNode - узел на крайнем левом пути (первые ходы и полные пересчёты PVS): в нём
+    // не отсекаем и не сокращаем. nullAllowed - родитель сделал не нулевой ход
+    private int negamax(int depth, int alpha, int beta, int ply, Color side, int[] previousPv,
+                        boolean pvNode, boolean nullAllowed) {
+        pvLength[ply] = ply;
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0 || nodes == nodeLimit) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate(side);
+        }
+        boolean inCheck = board.isKingInCheck(side);
+        // Под шахом ходов мало, а угроза реальна - смотрим на полуход глубже
+        if (checkExtensions && inCheck && ply > 0) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiescence ? quiescence(alpha, beta, ply, side) : evaluate(side);
+        }
+
+        long key = board.getZobristKey();
+        int hashMove = 0;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            // В корне не отсекаем: там нужен ход и главный вариант
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int hashScore = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                        || (bound == TranspositionTable.BOUND_LOWER && hashScore >= beta)
+                        || (bound == TranspositionTable.BOUND_UPPER && hashScore <= alpha)) {
+                    return hashScore;
+                }
+            }
+        }
+
+        Color opponent = side.opposite();
+        boolean pruning = !pvNode && !inCheck;
+        int staticEval = pruning ? evaluate(side) : 0;
+
+        // Нулевой ход: если даже пропустив ход мы не ниже beta, настоящий ход тем более
+        // не ниже - отсекаем по поиску меньшей глубины. Без фигур (только пешки) опасно
+        // из-за цугцванга
+        if (nullMove && pruning && nullAllowed && depth >= NULL_MOVE_MIN_DEPTH && staticEval >= beta
+                && hasPieces(side)) {
+            int reduction = (depth > 6) ? 3 : 2;
+            board.makeNullMove();
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1, opponent, NO_PV, false, false);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score >= beta) {
+                // Мат после пропуска хода ничего не доказывает про мат с ходом
+                return isMateScore(score) ? beta : score;
+            }
+        }
+
+        // У горизонта тихий ход, не дающий шаха, не поднимет безнадёжно низкую оценку до alpha
+        boolean futile = futility && pruning && depth <= FUTILITY_MAX_DEPTH && !isMateScore(alpha)
+                && staticEval + FUTILITY_MARGIN * depth <= alpha;
+
+        // Ход главного варианта прошлой итерации важнее хода из таблицы
+        boolean onPv = ply < previousPv.length;
+        MovePicker picker = pickers[ply];
+        picker.init(side, ply, onPv ? previousPv[ply] : hashMove);
+        MoveList quiets = quietsTried[ply];
+        quiets.clear();
+
+        int alphaBefore = alpha;
+        int bestMove = 0;
+        int legalMoves = 0;
+        int movesSearched = 0;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            legalMoves++;
+            boolean quiet = MovePicker.isQuiet(move);
+            board.makeMove(move);
+            boolean givesCheck = board.isKingInCheck(opponent);
+            if (futile && movesSearched > 0 && quiet && !givesCheck) {
+                board.unmakeMove();
+                continue;
+            }
+            movesSearched++;
+            int[] childPv = (onPv && move == previousPv[ply]) ? previousPv : NO_PV;
+            int score;
+            if (movesSearched == 1) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, opponent, childPv, pvNode, true);
+            } else {
+                // Поздние тихие ходы после хорошей сортировки почти никогда не лучшие:
+                // сначала ищем их мельче, при неожиданном улучшении - на полную глубину
+                int reduction = 0;
+                if (lateMoveReductions && depth >= LMR_MIN_DEPTH && movesSearched > LMR_FULL_DEPTH_MOVES
+                        && quiet && !inCheck && !givesCheck) {
+                    reduction = LMR_REDUCTIONS[Math.min(depth, 63)][Math.min(movesSearched, 63)];
+                    if (pvNode) {
+                        reduction--;
+                    }
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                // PVS: остальные ходы лишь проверяем нулевым окном, что они не лучше alpha
+                int searchBeta = pvs ? alpha + 1 : beta;
+                score = -negamax(depth - 1 - reduction, -searchBeta, -alpha, ply + 1, opponent, childPv, false, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, -searchBeta, -alpha, ply + 1, opponent, childPv, false, true);
+                }
+                if (pvs && score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, opponent, childPv, pvNode, true);
+                }
+            }
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                pvTable[ply][ply] = move;
+                System.arraycopy(pvTable[ply + 1], ply + 1, pvTable[ply], ply + 1, pvLength[ply + 1] - (ply + 1));
+                pvLength[ply] = pvLength[ply + 1];
+                if (ply == 0) {
+                    rootBestMove = move;
+                    rootBestScore = score;
+                }
+                if (alpha >= beta) {
+                    if (quiet) {
+                        history.onCutoff(side, move, ply, depth, quiets);
+                    }
+                    break;
+                }
+            }
+            if (quiet) {
+                quiets.add(move);
+            }
+        }
+        if (legalMoves == 0) {
+            // Чем ближе мат, тем больше оценка - предпочитаем короткие маты
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = (alpha >= beta) ? TranspositionTable.BOUND_LOWER
+                : (alpha > alphaBefore) ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bestMove, alpha, depth, bound, ply);
+        return alpha;
+    }
+
+    // Форсированный поиск на горизонте: оценка "стоя на месте" или выгодные взятия,
+    // чтобы не оценивать позицию посреди размена. Под шахом - все ходы (и мат)
+    private int quiescence(int alpha, int beta, int ply, Color side) {
+        pvLength[ply] = ply;
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0 || nodes == nodeLimit) {
+            checkLimits();
+        }
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate(side);
+        }
+
+        boolean inCheck = board.isKingInCheck(side);
+        MovePicker picker = pickers[ply];
+        if (inCheck) {
+            picker.init(side, ply, Move.NONE);
+        } else {
+            int standPat = evaluate(side);
+            if (standPat >= beta) {
+                return beta;
+            }
+            alpha = Math.max(alpha, standPat);
+            picker.initCaptures(side, ply);
+        }
+
+        int legalMoves = 0;
+        Color opponent = side.opposite();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            legalMoves++;
+            board.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1, opponent);
+            board.unmakeMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > alpha) {
+                if (score >= beta) {
+                    return beta;
+                }
+                alpha = score;
+            }
+        }
+        if (inCheck && legalMoves == 0) {
+            return -MATE + ply;
+        }
+        return alpha;
+    }
+
+    // Есть ли у стороны фигуры кроме короля и пешек
+    private boolean hasPieces(Color side) {
+        for (PieceType type : PIECE_TYPES) {
+            if (type != PieceType.PAWN && type != PieceType.KING && board.getPieceCount(side, type) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Главный вариант из треугольной таблицы. Если он оборвался на отсечении по таблице
+    // транспозиций, продолжаем его ходами из таблицы (только легальными) до глубины итерации
+    private int[] collectPv(int depth) {
+        MoveList pv = new MoveList();
+        Color side = rootSide;
+        for (int ply = 0; ply < pvLength[0]; ply++) {
+            pv.add(pvTable[0][ply]);
+            board.makeMove(pvTable[0][ply]);
+            side = side.opposite();
+        }
+        while (pv.size() < depth && pv.size() < MAX_PLY) {
+            int move = TranspositionTable.move(table.probe(board.getZobristKey()));
+            MoveList legal = moveLists[pv.size()];
+            legal.clear();
+            board.generateLegalMoves(side, legal);
+            if (move == 0 || !legal.contains(move)) {
+                break;
+            }
+            pv.add(move);
+            board.makeMove(move);
+            side = side.opposite();
+        }
+        int[] result = new int[pv.size()];
+        for (int ply = pv.size() - 1; ply >= 0; ply--) {
+            board.unmakeMove();
+            result[ply] = pv.get(ply);
+        }
+        return result;
+    }
+
+    private int evaluate(Color side) {
+        return evaluation.evaluate(board, side);
+    }
+
+    private void checkLimits() {
+        long hardEnd = deadline;
+        if (stopRequested
+                || (nodeLimit > 0 && nodes >= nodeLimit)
+                || (hardEnd > 0 && System.currentTimeMillis() >= hardEnd)) {
+            aborted = true;
+        }
+    }
+
+    long getNodes() {
+        return nodes;
+    }
+}
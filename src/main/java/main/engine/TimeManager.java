@@ -0,0 +1,34 @@
+package main.engine;
+
+import main.GameType;
+
+// Бюджет времени на ход по часам: остаток времени, добавка за ход и (если известно)
+// число ходов до контроля. Мягкий бюджет - сколько обычно думать над ходом,
+// жёсткий - предел, после которого поиск прерывается посреди итерации
+public final class TimeManager {
+    // Сколько ходов ещё ожидается, если контроль не задан: на доске 10×10 партии длиннее
+    private static final int CLASSIC_MOVES_TO_GO = 30;
+    private static final int OMEGA_MOVES_TO_GO = 40;
+    // Запас на задержки GUI/протокола, чтобы не просрочить время
+    private static final long OVERHEAD_MILLIS = 50;
+    private static final long MIN_MILLIS = 10;
+    // Во сколько раз жёсткий бюджет больше мягкого (но не больше MAX_SHARE остатка)
+    private static final int HARD_FACTOR = 4;
+    private static final int MAX_SHARE = 3;
+
+    private TimeManager() {
+    }
+
+    // movesToGo <= 0 - контроль не задан, берётся типичное число для варианта
+    public static SearchLimits allocate(GameType gameType, long remainingMillis, long incrementMillis, int movesToGo) {
+        if (movesToGo <= 0) {
+            movesToGo = (gameType == GameType.OMEGA) ? OMEGA_MOVES_TO_GO : CLASSIC_MOVES_TO_GO;
+        }
+        long available = Math.max(MIN_MILLIS, remainingMillis - OVERHEAD_MILLIS);
+        long soft = available / movesToGo + incrementMillis * 3 / 4;
+        long hard = Math.min(soft * HARD_FACTOR, available / MAX_SHARE + incrementMillis);
+        hard = Math.max(MIN_MILLIS, Math.min(hard, available));
+        soft = Math.max(MIN_MILLIS, Math.min(soft, hard));
+        return new SearchLimits(0, 0, hard, soft);
+    }
+}
@@ -0,0 +1,199 @@
+package main.engine;
+
+import java.util.Arrays;
+
+// Общая таблица транспозиций. Каждая запись - два long: данные и (ключ XOR данные).
+// Запись читается без блокировок: если другой поток перезаписал её наполовину,
+// ключ после XOR не совпадёт и запись считается промахом. Поэтому одну таблицу
+// могут делить несколько потоков поиска без синхронизации.
+// Таблица разбита на корзины по BUCKET_SIZE записей; запись в корзине вытесняется
+// по политике Replacement. Данные записи (0 - пустая запись):
+//   биты  0..31  ход (упакованный Move, 0 - нет хода)
+//   биты 32..47  оценка (short, маты - относительно узла)
+//   биты 48..55  глубина
+//   биты 56..57  тип оценки (BOUND_*)
+//   биты 58..63  поколение (номер поиска по модулю 64)
+public final class TranspositionTable {
+    public static final int BOUND_LOWER = 1;  // оценка >= score (отсечение по beta)
+    public static final int BOUND_UPPER = 2;  // оценка <= score (все ходы хуже alpha)
+    public static final int BOUND_EXACT = 3;
+
+    public static final int DEFAULT_SIZE_MB = 16;
+    public static final int MAX_SIZE_MB = 16384;  // 2^30 записей - предел длины массива
+
+    // Как выбирать запись корзины для замены
+    public enum Replacement {
+        ALWAYS,          // новая запись вытесняет первую запись корзины, если нет своей
+        DEPTH_AND_AGE    // вытесняется самая мелкая запись, старые поиски - в первую очередь
+    }
+
+    private static final int BUCKET_SIZE = 4;
+    private static final int ENTRY_BYTES = 16;
+    private static final int AGE_MASK = 63;
+
+    private long[] keys;
+    private long[] data;
+    private int bucketMask;
+    private int age;
+    private Replacement replacement;
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    public TranspositionTable(int megabytes) {
+        this.replacement = Replacement.DEPTH_AND_AGE;
+        resize(megabytes);
+    }
+
+    // Изменить размер (с очисткой). Число корзин - наибольшая степень двойки, влезающая
+    // в заданный объём. Вызывать между поисками, а не во время
+    public void resize(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_SIZE_MB) {
+            throw new IllegalArgumentException("Размер таблицы транспозиций: 1.." + MAX_SIZE_MB + " МБ");
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (ENTRY_BYTES * BUCKET_SIZE));
+        keys = new long[(int) buckets * BUCKET_SIZE];
+        data = new long[(int) buckets * BUCKET_SIZE];
+        bucketMask = (int) buckets - 1;
+        age = 0;
+    }
+
+    public int getSizeMb() {
+        return (int) ((long) keys.length * ENTRY_BYTES / (1024 * 1024));
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(data, 0L);
+        age = 0;
+    }
+
+    public Replacement getReplacement() {
+        return replacement;
+    }
+
+    public void setReplacement(Replacement replacement) {
+        this.replacement = replacement;
+    }
+
+    // Начало нового поиска: записи прошлых поисков вытесняются в первую очередь
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    // Данные записи для ключа или 0, если записи нет. Разбирать через move/score/depth/bound
+    public long probe(long key) {
+        int first = bucketStart(key);
+        for (int i = first; i < first + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == key) {
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    // Сохранить результат узла. score - оценка узла в сантипешках, ply - расстояние от корня
+    // (для перевода матовых оценок в "мат через N от этого узла")
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int first = bucketStart(key);
+        int victim = first;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int i = first; i < first + BUCKET_SIZE; i++) {
+            long entry = data[i];
+            if (entry == 0 || (keys[i] ^ entry) == key) {
+                // Своя запись: сохраняем ход, если новый результат пришёл без хода
+                if (entry != 0 && move == 0) {
+                    move = move(entry);
+                }
+                victim = i;
+                break;
+            }
+            if (replacement == Replacement.ALWAYS) {
+                continue;
+            }
+            // Чем глубже и свежее запись, тем дороже её вытеснять
+            int worth = depth(entry) - 8 * ((age - age(entry)) & AGE_MASK);
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = i;
+            }
+        }
+        long entry = pack(move, toStored(score, ply), depth, bound, age);
+        data[victim] = entry;
+        keys[victim] = key ^ entry;
+    }
+
+    // Доля занятых записей текущего поиска в промилле (по первым тысячам записей)
+    public int hashfull() {
+        int sample = Math.min(1000 * BUCKET_SIZE, data.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (data[i] != 0 && age(data[i]) == age) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    private int bucketStart(long key) {
+        // Младшие биты ключа Zobrist уже хорошо перемешаны
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * BUCKET_SIZE;
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xFFFFFFFFL)
+                | ((long) (score & 0xFFFF) << 32)
+                | ((long) Math.min(depth, 255) << 48)
+                | ((long) bound << 56)
+                | ((long) age << 58);
+    }
+
+    public static int move(long entry) {
+        return (int) entry;
+    }
+
+    // Оценка записи для узла на расстоянии ply от корня
+    public static int score(long entry, int ply) {
+        return fromStored((short) (entry >>> 32), ply);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 48) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 56) & 3;
+    }
+
+    private static int age(long entry) {
+        return (int) (entry >>> 58) & AGE_MASK;
+    }
+
+    // Мат хранится как расстояние от узла, а не от корня - иначе транспозиция
+    // на другой глубине получила бы неверное число ходов до мата
+    private static int toStored(int score, int ply) {
+        if (score >= Searcher.MATE - Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Searcher.MATE + Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromStored(int score, int ply) {
+        if (score >= Searcher.MATE - Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Searcher.MATE + Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
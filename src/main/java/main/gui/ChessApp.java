@@ -1,11 +1,15 @@
 package main.gui;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 import main.*;
+import main.engine.Engine;
+import main.engine.SearchController;
+import main.engine.SearchResult;
 import main.pieces.*;
 
 import java.util.Optional;
@@ -17,6 +21,17 @@ public class ChessApp extends Application {
     private InfoPanel infoPanel;
     private Stage primaryStage;
 
+    // Игра против компьютера: движок ищет ход в фоне по своим часам (время + добавка за ход)
+    // и, если включено, размышляет над ожидаемым ответом, пока думает человек
+    private static final long ENGINE_CLOCK_MILLIS = 5 * 60 * 1000;
+    private static final long ENGINE_INCREMENT_MILLIS = 2000;
+    private final SearchController engineController = new SearchController(new Engine());
+    private boolean engineEnabled;
+    private boolean ponderEnabled = true;
+    private final Color engineColor = Color.BLACK;
+    private long engineClockMillis = ENGINE_CLOCK_MILLIS;
+    private int engineGeneration; // ход движка из устаревшей позиции (отмена, новая игра) не применяется
+
     @Override
     public void start(Stage primaryStage) {
         this.primaryStage = primaryStage;
@@ -58,6 +73,7 @@ public class ChessApp extends Application {
             primaryStage.setScene(scene);
             primaryStage.setMinWidth(1000);
             primaryStage.setMinHeight(700);
+            primaryStage.setOnCloseRequest(e -> engineController.shutdown());
             primaryStage.show();
 
             infoPanel.updateInfo();
@@ -96,7 +112,20 @@ public class ChessApp extends Application {
 
         helpMenu.getItems().add(aboutItem);
 
-        menuBar.getMenus().addAll(gameMenu, helpMenu);
+        Menu engineMenu = new Menu("Компьютер");
+        CheckMenuItem playEngine = new CheckMenuItem("Компьютер играет чёрными");
+        playEngine.setOnAction(e -> setEngineEnabled(playEngine.isSelected()));
+        CheckMenuItem ponder = new CheckMenuItem("Думать во время хода человека");
+        ponder.setSelected(ponderEnabled);
+        ponder.setOnAction(e -> {
+            ponderEnabled = ponder.isSelected();
+            if (!ponderEnabled) {
+                engineController.stopPondering();
+            }
+        });
+        engineMenu.getItems().addAll(playEngine, ponder);
+
+        menuBar.getMenus().addAll(gameMenu, engineMenu, helpMenu);
         return menuBar;
     }
 
@@ -123,7 +152,7 @@ public class ChessApp extends Application {
         for (int row = boardSize - 1; row >= 0; row--) {
             System.out.print((row + 1) + " |");
             for (int col = 0; col < boardSize; col++) {
-                Position pos = new Position(row, col);
+                Position pos = Position.of(row, col);
                 Piece piece = board.getPieceAt(pos);
 
                 if (piece == null) {
@@ -160,10 +189,10 @@ public class ChessApp extends Application {
         if (game.getGameType() == GameType.OMEGA) {
             System.out.println("\nУгловые фигуры (Omega Chess):");
             Position[] cornerPositions = {
-                    new Position(-1, -1, true),
-                    new Position(-1, 10, true),
-                    new Position(10, -1, true),
-                    new Position(10, 10, true)
+                    Position.corner("w1"),
+                    Position.corner("w2"),
+                    Position.corner("w3"),
+                    Position.corner("w4")
             };
 
             String[] cornerNames = {
@@ -202,6 +231,8 @@ public class ChessApp extends Application {
             log("Размер доски: " + gameType.getBoardSize() + "x" + gameType.getBoardSize());
 
             // 1. СОЗДАЕМ НОВУЮ ИГРУ
+            cancelEngine();
+            engineClockMillis = ENGINE_CLOCK_MILLIS;
             game = new Game(gameType);
             log("Игра создана успешно");
 
@@ -260,7 +291,7 @@ public class ChessApp extends Application {
             // Проверяем основную доску
             for (int row = 0; row < gameType.getBoardSize(); row++) {
                 for (int col = 0; col < gameType.getBoardSize(); col++) {
-                    Position pos = new Position(row, col);
+                    Position pos = Position.of(row, col);
                     Piece piece = board.getPieceAt(pos);
                     if (piece != null) {
                         pieceCount++;
@@ -275,10 +306,10 @@ public class ChessApp extends Application {
             // Проверяем угловые фигуры для Omega
             if (gameType == GameType.OMEGA) {
                 Position[] corners = {
-                        new Position(-1, -1, true),
-                        new Position(-1, 10, true),
-                        new Position(10, -1, true),
-                        new Position(10, 10, true)
+                        Position.corner("w1"),
+                        Position.corner("w2"),
+                        Position.corner("w3"),
+                        Position.corner("w4")
                 };
 
                 for (Position corner : corners) {
@@ -321,7 +352,12 @@ public class ChessApp extends Application {
 
     public void undoMove() {
         if (game != null && !game.isGameOver()) {
+            cancelEngine();
             boolean success = game.undoLastMove();
+            // Против компьютера отменяем и его ход, чтобы снова ходил человек
+            if (success && engineEnabled && game.getCurrentPlayer() == engineColor) {
+                game.undoLastMove();
+            }
             if (success) {
                 boardView.drawBoard();
                 infoPanel.updateInfo();
@@ -344,6 +380,7 @@ public class ChessApp extends Application {
 
             Optional<ButtonType> result = confirmDialog.showAndWait();
             if (result.isPresent() && result.get() == ButtonType.OK) {
+                cancelEngine();
                 game.surrender();
                 infoPanel.updateInfo();
                 log((game.getCurrentPlayer() == Color.WHITE ? "Белые" : "Черные") + " сдались!");
@@ -371,6 +408,11 @@ public class ChessApp extends Application {
             return;
         }
 
+        if (isEngineTurn()) {
+            log("Сейчас ходит компьютер");
+            return;
+        }
+
         log("Выполнение хода: " + positionToString(from) + " → " + positionToString(to));
 
         boolean success = game.makeMove(from, to);
@@ -386,11 +428,75 @@ public class ChessApp extends Application {
 
             // Проверяем конечные состояния
             checkGameStatus();
+
+            if (isEngineTurn()) {
+                if (engineController.isPonderHit(game.getSnapshot())) {
+                    log("Компьютер угадал ответ и продолжает обдумывать ход");
+                }
+                startEngineMove();
+            }
         } else {
             log("Ход невозможен");
         }
     }
 
+    private boolean isEngineTurn() {
+        return engineEnabled && game != null && !game.isGameOver() && game.getCurrentPlayer() == engineColor;
+    }
+
+    private void setEngineEnabled(boolean enabled) {
+        engineEnabled = enabled;
+        if (!enabled) {
+            cancelEngine();
+        } else if (isEngineTurn()) {
+            startEngineMove();
+        }
+        log(enabled ? "Компьютер играет " + (engineColor == Color.WHITE ? "белыми" : "чёрными") : "Игра без компьютера");
+    }
+
+    // Поиск хода в фоне; результат применяется в потоке JavaFX
+    private void startEngineMove() {
+        int generation = ++engineGeneration;
+        long started = System.currentTimeMillis();
+        log("Компьютер думает...");
+        engineController.searchMove(game.getSnapshot(), engineClockMillis, ENGINE_INCREMENT_MILLIS,
+                result -> Platform.runLater(() -> applyEngineMove(generation, started, result)));
+    }
+
+    private void applyEngineMove(int generation, long started, SearchResult result) {
+        if (generation != engineGeneration || !isEngineTurn() || !result.hasBestMove()) {
+            return;
+        }
+        engineClockMillis += ENGINE_INCREMENT_MILLIS - (System.currentTimeMillis() - started);
+
+        Mailbox mailbox = game.getBoard().getMailbox();
+        int move = result.getBestMove();
+        Position from = mailbox.toPosition(Move.from(move));
+        Position to = mailbox.toPosition(Move.to(move));
+        if (!game.makeMove(from, to)) {
+            log("Компьютер предложил невозможный ход " + Move.toString(move, mailbox));
+            return;
+        }
+        if (Move.isPromotion(move)) {
+            game.promotePawn(to, Move.promotion(move).pieceClass());
+        }
+        log("Компьютер: " + positionToString(from) + " → " + positionToString(to)
+                + " (" + result.toString(mailbox) + ")");
+        boardView.drawBoard();
+        infoPanel.updateInfo();
+        checkGameStatus();
+
+        if (ponderEnabled && !game.isGameOver()) {
+            engineController.startPondering(game.getSnapshot(), result);
+        }
+    }
+
+    // Остановить поиск и размышление; запоздавший результат будет отброшен
+    private void cancelEngine() {
+        engineGeneration++;
+        engineController.stop();
+    }
+
     private String positionToString(Position pos) {
         if (pos == null) return "null";
 
@@ -522,7 +628,7 @@ public class ChessApp extends Application {
         if (controlPanel != null) {
             controlPanel.log(message);
         }
-        System.out.println("LOG: " + message);
+        Log.info("LOG: " + message);
     }
 
     private void showErrorDialog(String title, String message) {
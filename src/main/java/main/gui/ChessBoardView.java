@@ -93,7 +93,7 @@ public class ChessBoardView {
             final int chessRow = BOARD_SIZE - 1 - gridRow;
 
             for (int col = 0; col < BOARD_SIZE; col++) {
-                Position pos = new Position(chessRow, col);
+                Position pos = Position.of(chessRow, col);
                 createMainSquare(pos, gridRow, col);
             }
         }
@@ -162,28 +162,28 @@ public class ChessBoardView {
         double boardHeight = 10 * SQUARE_SIZE;
 
         createCornerSquare(
-                new Position(-1, -1, true),
+                Position.corner("w1"),
                 boardX - CORNER_SQUARE_SIZE,
                 boardY + boardHeight,
                 "w1"
         );
 
         createCornerSquare(
-                new Position(-1, 10, true),
+                Position.corner("w2"),
                 boardX + boardWidth,
                 boardY + boardHeight,
                 "w2"
         );
 
         createCornerSquare(
-                new Position(10, -1, true),
+                Position.corner("w3"),
                 boardX - CORNER_SQUARE_SIZE,
                 boardY - CORNER_SQUARE_SIZE,
                 "w3"
         );
 
         createCornerSquare(
-                new Position(10, 10, true),
+                Position.corner("w4"),
                 boardX + boardWidth,
                 boardY - CORNER_SQUARE_SIZE,
                 "w4"
@@ -263,28 +263,28 @@ public class ChessBoardView {
         double boardWidth = 10 * SQUARE_SIZE;
         double boardHeight = 10 * SQUARE_SIZE;
 
-        Position w1Pos = new Position(-1, -1, true);
+        Position w1Pos = Position.corner("w1");
         StackPane w1Cell = cells.get(w1Pos);
         if (w1Cell != null) {
             w1Cell.setLayoutX(boardX - CORNER_SQUARE_SIZE);
             w1Cell.setLayoutY(boardY + boardHeight);
         }
 
-        Position w2Pos = new Position(-1, 10, true);
+        Position w2Pos = Position.corner("w2");
         StackPane w2Cell = cells.get(w2Pos);
         if (w2Cell != null) {
             w2Cell.setLayoutX(boardX + boardWidth);
             w2Cell.setLayoutY(boardY + boardHeight);
         }
 
-        Position w3Pos = new Position(10, -1, true);
+        Position w3Pos = Position.corner("w3");
         StackPane w3Cell = cells.get(w3Pos);
         if (w3Cell != null) {
             w3Cell.setLayoutX(boardX - CORNER_SQUARE_SIZE);
             w3Cell.setLayoutY(boardY - CORNER_SQUARE_SIZE);
         }
 
-        Position w4Pos = new Position(10, 10, true);
+        Position w4Pos = Position.corner("w4");
         StackPane w4Cell = cells.get(w4Pos);
         if (w4Cell != null) {
             w4Cell.setLayoutX(boardX + boardWidth);
@@ -361,11 +361,8 @@ public class ChessBoardView {
         if (selectedPosition == null) {
             if (piece != null && piece.getColor() == game.getCurrentPlayer()) {
                 selectedPosition = position;
-                possibleMoves = piece.getPossibleMoves(game.getBoard());
-                app.log("Все возможные ходы фигуры: " + possibleMoves.size());
-
-                possibleMoves.removeIf(move -> !game.getBoard().isMoveLegal(position, move, piece.getColor()));
-                app.log("Легальные ходы после фильтрации: " + possibleMoves.size());
+                possibleMoves = game.getBoard().getLegalMoves(position);
+                app.log("Легальные ходы фигуры: " + possibleMoves.size());
 
                 highlightSquare(position);
                 highlightPossibleMoves();
@@ -525,7 +522,7 @@ public class ChessBoardView {
         // Добавляем фигуры с основной доски
         for (int chessRow = 0; chessRow < BOARD_SIZE; chessRow++) {
             for (int col = 0; col < BOARD_SIZE; col++) {
-                Position pos = new Position(chessRow, col);
+                Position pos = Position.of(chessRow, col);
                 Piece piece = game.getBoard().getPieceAt(pos);
 
                 if (piece != null) {
@@ -542,10 +539,10 @@ public class ChessBoardView {
         // Добавляем угловые фигуры (только для OMEGA)
         if (game.getGameType() == GameType.OMEGA) {
             Position[] cornerPositions = {
-                    new Position(-1, -1, true),
-                    new Position(-1, 10, true),
-                    new Position(10, -1, true),
-                    new Position(10, 10, true)
+                    Position.corner("w1"),
+                    Position.corner("w2"),
+                    Position.corner("w3"),
+                    Position.corner("w4")
             };
 
             for (Position pos : cornerPositions) {
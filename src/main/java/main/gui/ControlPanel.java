@@ -8,6 +8,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import main.GameType;
 import main.Game;
+import main.Log;
 import javafx.scene.control.Separator;
 
 public class ControlPanel {
@@ -148,7 +149,7 @@ public class ControlPanel {
             // Автопрокрутка вниз
             logArea.setScrollTop(Double.MAX_VALUE);
         }
-        System.out.println("LOG: " + message);
+        Log.info("LOG: " + message);
     }
 
     public VBox getView() {
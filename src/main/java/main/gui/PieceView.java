@@ -14,6 +14,7 @@ import main.pieces.Knight;
 import main.pieces.Pawn;
 import main.pieces.Champion;
 import main.pieces.Wizard;
+import main.Log;
 
 import java.io.InputStream;
 
@@ -49,10 +50,10 @@ public class PieceView {
 
             view.getChildren().add(pieceImage);
 
-            System.out.println("Изображение загружено: " + getPieceName() + " " +
+            Log.debug(() -> "Изображение загружено: " + getPieceName() + " " +
                     (piece.getColor() == main.Color.WHITE ? "белая" : "черная"));
         } else {
-            System.out.println("Использую fallback для: " + getPieceName());
+            Log.debug(() -> "Использую fallback для: " + getPieceName());
             createFallbackView();
         }
     }
@@ -64,7 +65,7 @@ public class PieceView {
             InputStream is = getClass().getResourceAsStream(imagePath);
 
             if (is == null) {
-                System.err.println("Ресурс не найден: " + imagePath);
+                Log.warn("Ресурс не найден: " + imagePath);
 
                 // Пробуем другие варианты
                 String[] alternatives = {
@@ -76,10 +77,10 @@ public class PieceView {
                 };
 
                 for (String altPath : alternatives) {
-                    System.out.println("Пробую альтернативный путь: " + altPath);
+                    Log.debug("Пробую альтернативный путь: " + altPath);
                     is = getClass().getResourceAsStream(altPath);
                     if (is != null) {
-                        System.out.println("Найден по пути: " + altPath);
+                        Log.debug("Найден по пути: " + altPath);
                         break;
                     }
                 }
@@ -94,7 +95,7 @@ public class PieceView {
             return image;
 
         } catch (Exception e) {
-            System.err.println("Ошибка загрузки изображения: " + e.getMessage());
+            Log.warn("Ошибка загрузки изображения: " + e.getMessage());
             return null;
         }
     }
@@ -8,6 +8,11 @@ public class Bishop extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getBishopMoves(this, board);
     }
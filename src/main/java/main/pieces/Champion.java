@@ -10,6 +10,11 @@ public class Champion extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.CHAMPION;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getChampionMoves(this, board);
     }
@@ -10,6 +10,11 @@ public class King extends Piece {
         this.hasMoved = false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getAllKingMoves(this, board);
     }
@@ -8,6 +8,11 @@ public class Knight extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getKnightMoves(this, board);
     }
@@ -12,6 +12,11 @@ public class Pawn extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getPawnMoves(this, board);
     }
@@ -24,7 +29,7 @@ public class Pawn extends Piece {
         GameType gameType = board.getGame().getGameType();
 
         // Вперёд-вправо
-        Position forwardRight = new Position(
+        Position forwardRight = Position.of(
                 this.getPosition().getRow() + offset_forward,
                 this.getPosition().getCol() + 1
         );
@@ -32,7 +37,7 @@ public class Pawn extends Piece {
             moves.add(forwardRight);
         }
         // Вперёд-влево
-        Position forwardLeft = new Position(
+        Position forwardLeft = Position.of(
                 this.getPosition().getRow() + offset_forward,
                 this.getPosition().getCol() - 1
         );
@@ -1,6 +1,7 @@
 package main.pieces;
 import main.Board;
 import main.Color;
+import main.PieceType;
 import main.Position;
 
 import java.util.List;
@@ -30,6 +31,9 @@ public abstract class Piece {
         this.position = newPosition;
     }
 
+    // Тип фигуры (для битбордов и таблиц, без цепочек instanceof)
+    public abstract PieceType getType();
+
     public abstract List<Position> getPossibleMoves(Board board);
 
     public List<Position> getAttackingSquares(Board board) {
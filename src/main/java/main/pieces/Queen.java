@@ -3,6 +3,7 @@ package main.pieces;
 import main.Board;
 import main.Color;
 import main.MoveCalculator;
+import main.PieceType;
 import main.Position;
 
 import java.util.ArrayList;
@@ -13,6 +14,11 @@ public class Queen extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         List<Position> moves = new ArrayList<>();
         moves.addAll(MoveCalculator.getRookMoves(this, board));
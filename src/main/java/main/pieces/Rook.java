@@ -2,6 +2,7 @@ package main.pieces;
 import main.Board;
 import main.Color;
 import main.MoveCalculator;
+import main.PieceType;
 import main.Position;
 
 import java.util.List;
@@ -13,6 +14,11 @@ public class Rook extends Piece {
         this.hasMoved = false;
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getRookMoves(this, board);
     }
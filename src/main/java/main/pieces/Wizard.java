@@ -10,6 +10,11 @@ public class Wizard extends Piece {
         super(color, startPosition);
     }
 
+    @Override
+    public PieceType getType() {
+        return PieceType.WIZARD;
+    }
+
     public List<Position> getPossibleMoves(Board board) {
         return MoveCalculator.getWizardMoves(this, board);
     }
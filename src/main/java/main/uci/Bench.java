@@ -0,0 +1,155 @@
+package main.uci;
+
+import main.Game;
+import main.GameType;
+import main.Log;
+import main.engine.Engine;
+import main.engine.SearchLimits;
+import main.engine.SearchOptions;
+import main.engine.SearchResult;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Замер поиска на фиксированном наборе позиций CLASSIC и OMEGA: сколько узлов и времени
+// нужно до заданной глубины. Поиск в один поток с очищенной таблицей перед каждой позицией,
+// поэтому число узлов от запуска к запуску одинаковое - по нему и сравниваются изменения поиска.
+// С compare каждый приём поиска по очереди выключается (плюс прогон без всех приёмов),
+// чтобы увидеть его вклад.
+//
+// java -cp target/classes main.uci.Bench [compare] [depth N] [classic|omega]
+// или команда bench с теми же параметрами в UciProtocol
+public final class Bench {
+    public static final int CLASSIC_DEPTH = 8;
+    public static final int OMEGA_DEPTH = 6;
+    private static final int HASH_SIZE_MB = 16;
+    private static final long WARM_UP_MILLIS = 5000;
+
+    // Позиции - ходы из начальной расстановки в записи протокола
+    private static final String[] CLASSIC_POSITIONS = {
+            "",
+            "d2d3 d7d6 g1h3 f7f5 e1d2 e8f7 e2e3 e7e6 h1g1 e6e5 c2c3 c8d7",
+            "b2b3 d7d5 a2a4 g8f6 g2g4 b8d7 a1a3 a7a6 g1h3 f6g4 a3a1 d7f6 e2e3 g4e3 b1c3 c8h3 d2e3 h7h5 c3d5",
+            "a2a4 c7c6 e2e3 f7f5 g2g4 h7h5 g4f5 e7e5 d1h5 g7g6 b2b4 f8b4 f5g6 b4d2 b1d2 d8a5 h5e5 e8f8 e5b8 h8h2"
+                    + " h1h2 a5d8 b8b7 a7a6 b7a7 a8a7",
+            "g2g3 g7g5 b2b4 h7h6 e2e4 f7f6 d2d3 b8a6 g3g4 a6c5 b4c5 e7e6 e4e5 f8c5",
+            "h2h4 b7b5 d2d3 e7e6 b2b3 d8h4 g1h3 h4f2 e1d2 f2f1 d1f1 a7a5 c2c3 g8h6 f1f7 e8f7 h1e1 b5b4 c3b4 f7f6"
+                    + " b4a5 f8e7 e2e4 a8a5 c1a3",
+            "b2b3 a7a5 h2h3 g8h6 h3h4 a8a7 h1h2 g7g5 d2d3 f7f6 h4g5 f6g5 g1f3 h6f7",
+            "g1h3 e7e6 h3f4 f8c5 c2c3 g8h6 c3c4 h6f5 g2g3 e8g8 f4e6 f7e6 e2e3 f5g3 h2g3 c5e3 f2e3 f8f3 g3g4 f3e3"
+                    + " e1f2 e3e4 h1g1 e4c4 d1b3 c4b4 f1d3 b4e4 d3e4 b8c6 e4c6 d7d5 b3b7 a8b8 b7c7 c8d7 c7a5 b8b2"
+                    + " c6d7 b2b1 d7e6",
+            "b2b4 d7d5 a2a4 c7c5 b4c5 c8g4 c1a3 g7g6 a3c1 f7f5 a1a2 e7e6 f2f3 d8g5 f3g4 g5d2 d1d2 a7a6 a2a3 f8c5"
+                    + " a4a5 c5b6",
+    };
+
+    private static final String[] OMEGA_POSITIONS = {
+            "",
+            "b2b4 j9j7 w1a3 w4j8 c1b3 g9g7 c2c5 h9h6 b3a5 f10g9 a1c2 a9a6",
+            "w2j3 b9b7 g2g5 a9a7 b2b3 h9h6 g5g6 b7b6 a2a5 g9g8 j1i3 b6a5 h2h4 b10b7 f2f5 b7f7 g6f7 a10a9 g1b6 h10i8"
+                    + " b6e9 d10e9 d2d4 g8f7 i3j5 e10d10 f1f2 d9d7 c1a2 a9b9 e1a5 j9j8 f2e3",
+            "e2e4 b9b8 i2i3 a9a8 j2j4 w4j8 c1b3 b8b7 e4e5 i9i8 f2f5 d9d6 j1j2 d6e5 e1e5 f9f8 e5e9 e10e9 f5f6 g9g8"
+                    + " b3c5 c10d8",
+            "h1g3 c9c8 e2e3 e9e7 e1e2 g9g6 w1a3 d10a7 g3h5 g6h5 e2h5 f9f7 h5h9",
+            "g2g5 g9g8 e2e3 h10i8 j2j5 i8h6 g5h6 i10h10 h6h7 a9a7 h7g8 h9g8 d1g4",
+            "h1g3 g9g6 j2j4 f9f8 i2i4 e10j5 b2b4 j5j4 j1i2 j4h2 w2h1 g10d7 e2e3 d7i2",
+            "h1i3 a10b8 a2a3 a9a6 i3h5 b8a10 h5f4 d9d7 c2c4 i9i7 j1i3 e10b7 f4d5 b7b6 d2d3 b6b2 b1b2 j9j8 j2j3 e9e7"
+                    + " b2b9 d10e9 c1a2 w3a8 d1b3 a10b9 d5e7 h9h6 i3i4 c10a9 e7f9 h10f9 i4h6 e9h6 e1d1 a8b5",
+            "d2d3 g9g6 i2i3 d9d8 w1a3 c9c7 h1g3 d10a7 b2b4 b9b7 a1b2 c7c6 f2f4 c10b8 i1i2 a7g1 i2i1 g1h2 w2j3 b8d9"
+                    + " f1f2 h2i3 i1i3 d9e7 i3i9 e7f5 e2e4 i10i9 e4f5 a9a7 f5g6 a10b8 b1a1 f9f6 g3f1",
+    };
+
+    private Bench() {
+    }
+
+    public static void main(String[] args) {
+        Log.setLevel(Log.Level.WARN);
+        run(args, 0, System.out, SearchOptions.all());
+    }
+
+    // Параметры: compare, depth N, classic|omega. Аргументы с from - для команды протокола.
+    // Без compare замеряется поиск с options
+    static void run(String[] args, int from, PrintStream out, SearchOptions options) {
+        boolean compare = false;
+        int depth = 0;
+        List<GameType> variants = new ArrayList<>();
+        for (int i = from; i < args.length; i++) {
+            switch (args[i].toLowerCase()) {
+                case "compare": compare = true; break;
+                case "depth": depth = Integer.parseInt(args[++i]); break;
+                case "classic": variants.add(GameType.CLASSIC); break;
+                case "omega": variants.add(GameType.OMEGA); break;
+                default: throw new IllegalArgumentException("Неизвестный параметр bench: " + args[i]);
+            }
+        }
+        if (variants.isEmpty()) {
+            variants.add(GameType.CLASSIC);
+            variants.add(GameType.OMEGA);
+        }
+
+        for (GameType variant : variants) {
+            int variantDepth = (depth > 0) ? depth : (variant == GameType.CLASSIC ? CLASSIC_DEPTH : OMEGA_DEPTH);
+            List<Game> positions = positions(variant);
+            out.println("bench " + variant + " depth " + variantDepth + " positions " + positions.size());
+            warmUp(positions, variantDepth);
+            if (compare) {
+                report(out, positions, variantDepth, SearchOptions.all(), false);
+                for (SearchOptions.Feature feature : SearchOptions.Feature.values()) {
+                    report(out, positions, variantDepth, SearchOptions.all().without(feature), false);
+                }
+                report(out, positions, variantDepth, SearchOptions.none(), false);
+            } else {
+                report(out, positions, variantDepth, options, true);
+            }
+        }
+    }
+
+    // Прогрев JIT: без него первая строка сравнения в разы медленнее остальных
+    private static void warmUp(List<Game> positions, int depth) {
+        Engine engine = new Engine(HASH_SIZE_MB);
+        long start = System.currentTimeMillis();
+        do {
+            for (Game game : positions) {
+                engine.clearHash();
+                engine.search(game, SearchLimits.depth(depth));
+            }
+        } while (System.currentTimeMillis() - start < WARM_UP_MILLIS);
+    }
+
+    private static void report(PrintStream out, List<Game> positions, int depth, SearchOptions options,
+                               boolean perPosition) {
+        Engine engine = new Engine(HASH_SIZE_MB);
+        engine.setSearchOptions(options);
+        long nodes = 0;
+        long time = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            Game game = positions.get(i);
+            engine.clearHash();
+            SearchResult result = engine.search(game, SearchLimits.depth(depth));
+            nodes += result.getNodes();
+            time += result.getTimeMillis();
+            if (perPosition) {
+                out.println(String.format("  %2d  nodes %10d  time %6d ms  bestmove %s", i + 1, result.getNodes(),
+                        result.getTimeMillis(), UciNotation.move(result.getBestMove(), game.getBoard().getMailbox())));
+            }
+        }
+        out.println(String.format("  %-24s nodes %11d  time %7d ms  nps %8d", options, nodes, time,
+                nodes * 1000 / Math.max(1, time)));
+    }
+
+    private static List<Game> positions(GameType variant) {
+        String[] lines = (variant == GameType.CLASSIC) ? CLASSIC_POSITIONS : OMEGA_POSITIONS;
+        List<Game> games = new ArrayList<>(lines.length);
+        for (String line : lines) {
+            Game game = new Game(variant);
+            for (String text : line.split(" ")) {
+                if (!text.isEmpty() && !UciNotation.playMove(game, text)) {
+                    throw new IllegalStateException("Недопустимый ход " + text + " в позиции bench: " + line);
+                }
+            }
+            games.add(game);
+        }
+        return games;
+    }
+}
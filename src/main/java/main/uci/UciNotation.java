@@ -0,0 +1,80 @@
+package main.uci;
+
+import main.Board;
+import main.Color;
+import main.Game;
+import main.Mailbox;
+import main.Move;
+import main.MoveList;
+import main.PieceType;
+import main.Position;
+
+// Запись клеток и ходов в протоколе. CLASSIC - обычная нотация UCI (e2e4, e7e8q).
+// Диалект Omega: вертикали a..j, горизонтали 1..10 (e2e5, j9j10q), угловые клетки
+// w1..w4 (Position.createCornerPosition), фигуры превращения дополнены c (Champion)
+// и w (Wizard): w1c2, e9e10c
+final class UciNotation {
+    static final String NULL_MOVE = "0000";
+
+    private UciNotation() {
+    }
+
+    static String square(Position position) {
+        if (position.isCornerCell()) {
+            return position.getOmegaCornerName();
+        }
+        return "" + (char) ('a' + position.getCol()) + (position.getRow() + 1);
+    }
+
+    static String move(int move, Mailbox mailbox) {
+        if (move == Move.NONE) {
+            return NULL_MOVE;
+        }
+        String text = square(mailbox.toPosition(Move.from(move))) + square(mailbox.toPosition(Move.to(move)));
+        PieceType promotion = Move.promotion(move);
+        return (promotion != null) ? text + pieceLetter(promotion) : text;
+    }
+
+    // Легальный ход стороны side в записи протокола или Move.NONE
+    static int parseMove(Board board, Color side, String text) {
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(side, moves);
+        Mailbox mailbox = board.getMailbox();
+        String normalized = text.toLowerCase();
+        for (int i = 0; i < moves.size(); i++) {
+            if (move(moves.get(i), mailbox).equals(normalized)) {
+                return moves.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Сыграть в партии ход в записи протокола; false - ход недопустим
+    static boolean playMove(Game game, String text) {
+        int move = parseMove(game.getBoard(), game.getCurrentPlayer(), text);
+        if (move == Move.NONE) {
+            return false;
+        }
+        Mailbox mailbox = game.getBoard().getMailbox();
+        Position to = mailbox.toPosition(Move.to(move));
+        if (!game.makeMove(mailbox.toPosition(Move.from(move)), to)) {
+            return false;
+        }
+        if (Move.isPromotion(move)) {
+            game.promotePawn(to, Move.promotion(move).pieceClass());
+        }
+        return true;
+    }
+
+    private static char pieceLetter(PieceType type) {
+        switch (type) {
+            case KNIGHT: return 'n';
+            case BISHOP: return 'b';
+            case ROOK: return 'r';
+            case QUEEN: return 'q';
+            case CHAMPION: return 'c';
+            case WIZARD: return 'w';
+            default: throw new IllegalArgumentException("Нет превращения в " + type);
+        }
+    }
+}
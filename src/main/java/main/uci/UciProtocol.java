@@ -0,0 +1,333 @@
+package main.uci;
+
+import main.Color;
+import main.Game;
+import main.GameType;
+import main.Log;
+import main.Mailbox;
+import main.PositionSnapshot;
+import main.engine.Engine;
+import main.engine.SearchLimits;
+import main.engine.SearchOptions;
+import main.engine.SearchResult;
+import main.engine.TimeManager;
+import main.engine.TranspositionTable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Консольный фронтенд движка по протоколу UCI (stdin/stdout) - для турнирных программ
+// и скриптов, без запуска JavaFX: java -cp target/classes main.uci.UciProtocol
+// (или Main с аргументом uci).
+//
+// Команды: uci, isready, setoption, ucinewgame, position startpos [moves ...],
+// go [depth|nodes|movetime|wtime|btime|winc|binc|movestogo|infinite] (без параметров - как
+// infinite; без часов ходящей стороны, глубины и узлов - DEFAULT_MOVE_TIME_MILLIS), stop, quit,
+// bench [compare] [depth N] [classic|omega] (Bench).
+// Приёмы поиска (SearchOptions) включаются и выключаются опциями-флажками.
+// Вариант выбирается опцией UCI_Variant (classic/omega); запись ходов Omega - в UciNotation.
+// Поиск идёт в отдельном потоке, поэтому stop и isready обрабатываются во время поиска
+public class UciProtocol {
+    private static final String NAME = "Omega Chess";
+    private static final String AUTHOR = "Omega Chess team";
+    // Время на ход, если go не задаёт ни часов ходящей стороны, ни глубины, ни узлов
+    private static final long DEFAULT_MOVE_TIME_MILLIS = 5000;
+
+    private final BufferedReader in;
+    private final PrintStream out;
+    private final Engine engine = new Engine();
+    private final ExecutorService searchThread;
+    private GameType variant = GameType.CLASSIC;
+    private Game game = new Game(variant);
+    private Future<?> searching;
+    // go infinite: bestmove только после stop, даже если поиск закончился раньше
+    private volatile CountDownLatch stopSignal;
+
+    public UciProtocol(InputStream in, PrintStream out) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        this.out = out;
+        this.searchThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "uci-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) {
+        // stdout принадлежит протоколу: сообщения ядра правил (INFO) его бы испортили
+        Log.setLevel(Log.Level.WARN);
+        new UciProtocol(System.in, System.out).run();
+    }
+
+    public void run() {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!handle(line.trim())) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            Log.error("Ошибка чтения команд", e);
+        } finally {
+            stopSearch();
+            searchThread.shutdown();
+            engine.shutdown();
+        }
+    }
+
+    // false - команда quit
+    boolean handle(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB
+                        + " min 1 max " + TranspositionTable.MAX_SIZE_MB);
+                send("option name Threads type spin default 1 min 1 max " + Engine.MAX_THREADS);
+                send("option name Clear Hash type button");
+                send("option name UCI_Variant type combo default classic var classic var omega");
+                for (SearchOptions.Feature feature : SearchOptions.Feature.values()) {
+                    send("option name " + feature.getOptionName() + " type check default "
+                            + SearchOptions.all().isEnabled(feature));
+                }
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                stopSearch();
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stopSearch();
+                engine.clearHash();
+                game = new Game(variant);
+                break;
+            case "position":
+                stopSearch();
+                position(tokens);
+                break;
+            case "go":
+                stopSearch();
+                go(tokens);
+                break;
+            case "stop":
+                stopSearch();
+                break;
+            case "bench":
+                stopSearch();
+                bench(tokens);
+                break;
+            case "quit":
+                return false;
+            default:
+                if (!line.isEmpty()) {
+                    send("info string Неизвестная команда: " + line);
+                }
+        }
+        return true;
+    }
+
+    // setoption name <имя из нескольких слов> [value <значение>]
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        String value = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("name")) {
+                continue;
+            }
+            if (tokens[i].equals("value")) {
+                value = (i + 1 < tokens.length) ? tokens[i + 1] : "";
+                break;
+            }
+            name.append(name.length() == 0 ? "" : " ").append(tokens[i]);
+        }
+
+        try {
+            switch (name.toString().toLowerCase()) {
+                case "hash":
+                    engine.setHashSize(Integer.parseInt(value));
+                    break;
+                case "threads":
+                    engine.setThreads(Integer.parseInt(value));
+                    break;
+                case "clear hash":
+                    engine.clearHash();
+                    break;
+                case "uci_variant":
+                    variant = GameType.valueOf(value.toUpperCase());
+                    engine.clearHash();
+                    game = new Game(variant);
+                    break;
+                default:
+                    SearchOptions.Feature feature = findFeature(name.toString());
+                    if (feature == null) {
+                        send("info string Неизвестная опция: " + name);
+                    } else {
+                        engine.setSearchOptions(engine.getSearchOptions().set(feature, Boolean.parseBoolean(value)));
+                    }
+            }
+        } catch (RuntimeException e) {
+            send("info string Неверное значение опции " + name + ": " + value);
+        }
+    }
+
+    private static SearchOptions.Feature findFeature(String name) {
+        for (SearchOptions.Feature feature : SearchOptions.Feature.values()) {
+            if (feature.getOptionName().equalsIgnoreCase(name)) {
+                return feature;
+            }
+        }
+        return null;
+    }
+
+    // position startpos [moves m1 m2 ...]. Расстановка FEN ядром правил не поддерживается
+    private void position(String[] tokens) {
+        if (tokens.length < 2 || !tokens[1].equals("startpos")) {
+            send("info string Поддерживается только position startpos [moves ...]");
+            return;
+        }
+        game = new Game(variant);
+        for (int i = 2; i < tokens.length; i++) {
+            if (tokens[i].equals("moves")) {
+                continue;
+            }
+            if (!UciNotation.playMove(game, tokens[i])) {
+                send("info string Недопустимый ход " + tokens[i] + ", позиция до него");
+                return;
+            }
+        }
+    }
+
+    private void go(String[] tokens) {
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = -1;
+        long blackTime = -1;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth": depth = Integer.parseInt(tokens[++i]); break;
+                    case "nodes": nodes = Long.parseLong(tokens[++i]); break;
+                    case "movetime": moveTime = Long.parseLong(tokens[++i]); break;
+                    case "wtime": whiteTime = Long.parseLong(tokens[++i]); break;
+                    case "btime": blackTime = Long.parseLong(tokens[++i]); break;
+                    case "winc": whiteIncrement = Long.parseLong(tokens[++i]); break;
+                    case "binc": blackIncrement = Long.parseLong(tokens[++i]); break;
+                    case "movestogo": movesToGo = Integer.parseInt(tokens[++i]); break;
+                    case "infinite": infinite = true; break;
+                    default: break;
+                }
+            }
+        } catch (RuntimeException e) {
+            send("info string Неверные параметры go");
+            return;
+        }
+
+        PositionSnapshot position = game.getSnapshot();
+        boolean white = position.getSideToMove() == Color.WHITE;
+        long remaining = white ? whiteTime : blackTime;
+        long increment = white ? whiteIncrement : blackIncrement;
+        depth = Math.min(depth, SearchLimits.MAX_DEPTH);
+
+        // Без ограничений ищет только go infinite или go без параметров (до stop). Если часов
+        // стороны, которая ходит, нет (например, пришло только btime при ходе белых), а глубина
+        // и узлы не заданы, поиск ограничивается DEFAULT_MOVE_TIME_MILLIS
+        infinite |= tokens.length == 1;
+        SearchLimits limits;
+        if (infinite) {
+            limits = SearchLimits.infinite();
+        } else if (moveTime > 0) {
+            limits = new SearchLimits(depth, nodes, moveTime);
+        } else if (remaining >= 0) {
+            SearchLimits clock = TimeManager.allocate(variant, remaining, increment, movesToGo);
+            limits = new SearchLimits(depth, nodes, clock.getTimeMillis(), clock.getSoftTimeMillis());
+        } else if (depth > 0 || nodes > 0) {
+            limits = new SearchLimits(depth, nodes, 0);
+        } else {
+            limits = new SearchLimits(0, 0, DEFAULT_MOVE_TIME_MILLIS);
+        }
+
+        CountDownLatch signal = infinite ? new CountDownLatch(1) : null;
+        stopSignal = signal;
+        Mailbox mailbox = Mailbox.forGameType(variant);
+        searching = searchThread.submit(() -> {
+            SearchResult result = engine.search(position, limits, iteration -> sendInfo(iteration, mailbox));
+            if (signal != null) {
+                awaitStop(signal);
+            }
+            int[] pv = result.getPv();
+            String bestMove = "bestmove " + UciNotation.move(result.getBestMove(), mailbox);
+            send(pv.length > 1 ? bestMove + " ponder " + UciNotation.move(pv[1], mailbox) : bestMove);
+        });
+    }
+
+    private void bench(String[] tokens) {
+        try {
+            Bench.run(tokens, 1, out, engine.getSearchOptions());
+        } catch (RuntimeException e) {
+            send("info string " + e.getMessage());
+        }
+    }
+
+    private void sendInfo(SearchResult result, Mailbox mailbox) {
+        long time = result.getTimeMillis();
+        StringBuilder line = new StringBuilder("info depth ").append(result.getDepth());
+        if (result.isMateScore()) {
+            line.append(" score mate ").append(result.getMateIn());
+        } else {
+            line.append(" score cp ").append(result.getScore());
+        }
+        line.append(" nodes ").append(result.getNodes());
+        line.append(" nps ").append(result.getNodes() * 1000 / Math.max(1, time));
+        line.append(" time ").append(time);
+        line.append(" hashfull ").append(engine.getTranspositionTable().hashfull());
+        line.append(" pv");
+        for (int move : result.getPv()) {
+            line.append(' ').append(UciNotation.move(move, mailbox));
+        }
+        send(line.toString());
+    }
+
+    // Остановить текущий поиск и дождаться его bestmove (go infinite отпускается сигналом)
+    private void stopSearch() {
+        if (searching == null) {
+            return;
+        }
+        CountDownLatch signal = stopSignal;
+        if (signal != null) {
+            signal.countDown();
+        }
+        engine.stopAndWait(searching);
+        searching = null;
+    }
+
+    private static void awaitStop(CountDownLatch signal) {
+        try {
+            signal.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void send(String line) {
+        out.println(line);
+        out.flush();
+    }
+}
@@ -0,0 +1,77 @@
+package test;
+
+import main.Board;
+import main.Game;
+import main.GameType;
+import main.Move;
+import main.MoveList;
+import main.Perft;
+import main.Position;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+public class EnPassantPerftTest {
+    public static void main(String[] args) {
+        System.out.println("\n=== ТЕСТИРОВАНИЕ ВЗЯТИЯ НА ПРОХОДЕ (perft/divide) ===");
+
+        // Тест 1: Шах от пешки, сделавшей длинный ход, снимается взятием на проходе.
+        // Белые: Ke4, Pe5; чёрные d7-d5+
+        System.out.println("\n1. Взятие шахующей пешки на проходе e5:d6:");
+        check("CLASSIC", "e2e4 a7a6 e4e5 a6a5 e1e2 h7h6 e2e3 h6h5 e3e4 d7d5", "e5d6", true,
+                new long[]{6, 175, 5390});
+
+        // Тест 2: Обе пешки уходят с горизонтали короля - взятие открывает ферзя.
+        // Белые: Ka5, Pb5; чёрные: Qg5, c7-c5
+        System.out.println("\n2. Связка по горизонтали через две пешки, b5:c6 запрещено:");
+        check("CLASSIC", "b2b4 g8f6 b4b5 f6g8 d2d3 g8f6 e1d2 f6g8 d2c3 g8f6 c3b4 f6g8 b4a5 e7e6 a2a3 d8g5 a3a4 c7c5",
+                "b5c6", false, new long[]{27, 964, 23931});
+
+        // Тест 3: Omega - пешка d9-d6 проскакивает d8 и d7, бить её можно на любую из них
+        System.out.println("\n3. Omega: d9-d6, взятие e6:d7:");
+        check("OMEGA", "e2e5 a9a8 e5e6 d9d6", "e6d7", true, new long[]{49, 1859, 91716});
+
+        System.out.println("\n4. Omega: d9-d6, взятие e7:d8:");
+        check("OMEGA", "e2e5 a9a8 e5e6 a8a7 e6e7 d9d6", "e7d8", true, new long[]{50, 1901, 96355});
+    }
+
+    // Сыграть ходы, проверить наличие взятия на проходе среди легальных ходов и perft по глубинам
+    private static void check(String variant, String line, String enPassant, boolean legal, long[] expected) {
+        Game game = new Game(GameType.valueOf(variant));
+        for (String move : line.split(" ")) {
+            if (!game.makeMove(square(move.substring(0, 2)), square(move.substring(2)))) {
+                System.out.println("   ✗ Ошибка: ход " + move + " отклонён");
+                return;
+            }
+        }
+
+        Board board = game.getBoard();
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(game.getCurrentPlayer(), moves);
+        boolean found = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isEnPassant(move) && (square(board, Move.from(move)) + square(board, Move.to(move))).equals(enPassant)) {
+                found = true;
+            }
+        }
+        System.out.println("   " + enPassant + (legal ? " есть среди ходов: " : " нет среди ходов: ")
+                + (found == legal ? "✓ Успех" : "✗ Ошибка"));
+
+        PrintStream quiet = new PrintStream(OutputStream.nullOutputStream());
+        for (int depth = 1; depth <= expected.length; depth++) {
+            long nodes = new Perft(game.getSnapshot()).divide(depth, 1, quiet);
+            System.out.println("   perft " + depth + " = " + nodes + ": "
+                    + (nodes == expected[depth - 1] ? "✓ Успех" : "✗ Ошибка, ожидалось " + expected[depth - 1]));
+        }
+    }
+
+    private static Position square(String name) {
+        return new Position(Integer.parseInt(name.substring(1)) - 1, name.charAt(0) - 'a');
+    }
+
+    private static String square(Board board, int index) {
+        Position position = board.getMailbox().toPosition(index);
+        return "" + (char) ('a' + position.getCol()) + (position.getRow() + 1);
+    }
+}